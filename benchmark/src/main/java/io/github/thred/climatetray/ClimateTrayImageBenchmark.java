@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the loading and combining of all images with a cold and a warm cache.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class ClimateTrayImageBenchmark
+{
+
+    @Param({"16", "24", "32", "48", "64"})
+    public int size;
+
+    @Param({"NONE", "DEFAULT"})
+    public ClimateTrayImageState state;
+
+    @Setup
+    public void setup()
+    {
+        for (ClimateTrayImage image : ClimateTrayImage.values())
+        {
+            image.getImage(state, size);
+        }
+    }
+
+    @Benchmark
+    public void getImagesCold(Blackhole blackhole)
+    {
+        ClimateTrayCache.clear();
+
+        getImagesWarm(blackhole);
+    }
+
+    @Benchmark
+    public void getImagesWarm(Blackhole blackhole)
+    {
+        for (ClimateTrayImage image : ClimateTrayImage.values())
+        {
+            blackhole.consume(image.getImage(state, size));
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.thred.climatetray.mnet.MNetImageBenchmark;
+import io.github.thred.climatetray.mnet.MNetPresetBenchmark;
+import io.github.thred.climatetray.mnet.MNetStateBenchmark;
+import io.github.thred.climatetray.mnet.ui.MNetDeviceListBenchmark;
+
+/**
+ * Runs the benchmarks of the work, that is done on each refresh of the tray, and reports the throughput together with
+ * the allocation rate. Accepts the usual JMH command line options.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayRefreshBenchmarks
+{
+
+    public static void main(String[] arguments) throws CommandLineOptionException, RunnerException
+    {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(arguments))
+            .include(ClimateTrayImageBenchmark.class.getName())
+            .include(MNetImageBenchmark.class.getName())
+            .include(MNetPresetBenchmark.class.getName())
+            .include(MNetStateBenchmark.class.getName())
+            .include(MNetDeviceListBenchmark.class.getName())
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(options).run();
+    }
+
+    private ClimateTrayRefreshBenchmarks()
+    {
+        super();
+    }
+
+}
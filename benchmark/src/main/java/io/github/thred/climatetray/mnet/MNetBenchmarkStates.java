@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates the states, presets and devices for the benchmarks. Most of the states are alike, like the states of
+ * air conditioners, that have been set by the same preset. The first preset matches all of them.
+ *
+ * @author Manfred Hantschel
+ */
+public final class MNetBenchmarkStates
+{
+
+    private static final long SEED = 0x636c696d617465L;
+
+    public static List<MNetState> createStates(int count)
+    {
+        Random random = new Random(SEED);
+        List<MNetState> states = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i += 1)
+        {
+            states.add(new MNetState(MNetDrive.ON, MNetMode.COOL, 22.0 + ((i % 2) * 0.5),
+                20.0 + (random.nextInt(80) / 10.0), MNetFan.LOW, MNetAir.HORIZONTAL, 0));
+        }
+
+        return states;
+    }
+
+    /**
+     * Creates the states of all combinations of drive, mode, fan and air.
+     *
+     * @return the states
+     */
+    public static List<MNetState> createAllStates()
+    {
+        List<MNetState> states = new ArrayList<>();
+
+        for (MNetDrive drive : values(MNetDrive.values(), MNetDrive.NO_CHANGE))
+        {
+            for (MNetMode mode : values(MNetMode.values(), MNetMode.NO_CHANGE))
+            {
+                for (MNetFan fan : values(MNetFan.values(), MNetFan.NO_CHANGE))
+                {
+                    for (MNetAir air : values(MNetAir.values(), MNetAir.NO_CHANGE))
+                    {
+                        states.add(new MNetState(drive, mode, (mode.isTemperatureEnabled()) ? 22.5 : null, 24.3,
+                            fan, air, 0));
+                    }
+                }
+            }
+        }
+
+        return states;
+    }
+
+    public static List<MNetPreset> createPresets(int count)
+    {
+        Random random = new Random(SEED);
+        List<MNetPreset> presets = new ArrayList<>(count);
+
+        presets.add(new MNetPreset(new UUID(0, 0), MNetDrive.ON, MNetMode.COOL, 22.0, MNetFan.LOW,
+            MNetAir.HORIZONTAL, false));
+
+        for (int i = 1; i < count; i += 1)
+        {
+            MNetMode mode = random(random, MNetMode.values());
+
+            presets.add(new MNetPreset(new UUID(0, i), random(random, MNetDrive.values()), mode,
+                ((mode != MNetMode.NO_CHANGE) && (mode.isTemperatureEnabled())) ? 19.0 + random.nextInt(10) : null,
+                random(random, MNetFan.values()), random(random, MNetAir.values()), false));
+        }
+
+        return presets;
+    }
+
+    public static List<MNetDevice> createDevices(List<MNetState> states)
+    {
+        List<MNetDevice> devices = new ArrayList<>(states.size());
+
+        for (int i = 0; i < states.size(); i += 1)
+        {
+            devices.add(new MNetDevice(new UUID(1, i), "Air Conditioner " + (i + 1), null, "localhost", MNetEc.EC_1,
+                i + 1, i + 1, true, true, states.get(i), null, "IC"));
+        }
+
+        return devices;
+    }
+
+    private static <VALUE_TYPE> List<VALUE_TYPE> values(VALUE_TYPE[] values, VALUE_TYPE excluded)
+    {
+        List<VALUE_TYPE> result = new ArrayList<>();
+
+        for (VALUE_TYPE value : values)
+        {
+            if (value != excluded)
+            {
+                result.add(value);
+            }
+        }
+
+        return result;
+    }
+
+    private static <VALUE_TYPE> VALUE_TYPE random(Random random, VALUE_TYPE[] values)
+    {
+        return values[random.nextInt(values.length)];
+    }
+
+    private MNetBenchmarkStates()
+    {
+        super();
+    }
+
+}
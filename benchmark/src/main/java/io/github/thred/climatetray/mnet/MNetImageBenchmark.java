@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.thred.climatetray.ClimateTrayImageState;
+
+/**
+ * Benchmarks the composition of the images of the states, for all combinations of mode, fan and air. The drive is a
+ * parameter, thus all images of one run fit into the cache.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class MNetImageBenchmark
+{
+
+    @Param({"16", "24", "32", "48", "64"})
+    public int size;
+
+    @Param({"ON", "OFF"})
+    public MNetDrive drive;
+
+    private List<MNetState> states;
+
+    @Setup
+    public void setup()
+    {
+        states = MNetBenchmarkStates
+            .createAllStates()
+            .stream()
+            .filter(state -> state.getDrive() == drive)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Composes all images, the cache is cleared first.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void composeImages(Blackhole blackhole)
+    {
+        MNetUtils.clearIconCache();
+
+        createImages(blackhole);
+    }
+
+    /**
+     * Returns all images, that have been composed before, from the cache.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void createImages(Blackhole blackhole)
+    {
+        for (MNetState state : states)
+        {
+            blackhole.consume(MNetUtils.createImage(ClimateTrayImageState.DEFAULT, size, state.getDrive(),
+                state.getMode(), state.getTemperature(), state.getFan(), state.getAir(), false, false));
+        }
+    }
+
+}
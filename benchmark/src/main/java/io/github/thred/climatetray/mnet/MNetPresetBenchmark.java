@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the matching of the presets against the states of the selected air conditioners, once by testing each
+ * preset against all states and once by the {@link MNetPresetMatcher}, that has to count all devices from scratch.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class MNetPresetBenchmark
+{
+
+    @Param({"10", "100", "1000"})
+    public int stateCount;
+
+    @Param({"5", "50"})
+    public int presetCount;
+
+    private List<MNetState> states;
+    private List<MNetPreset> presets;
+    private List<MNetDevice> devices;
+
+    @Setup
+    public void setup()
+    {
+        states = MNetBenchmarkStates.createStates(stateCount);
+        presets = MNetBenchmarkStates.createPresets(presetCount);
+        devices = MNetBenchmarkStates.createDevices(states);
+    }
+
+    @Benchmark
+    public void isMatching(Blackhole blackhole)
+    {
+        for (MNetPreset preset : presets)
+        {
+            blackhole.consume(MNetService.isMatching(preset, states));
+        }
+    }
+
+    @Benchmark
+    public MNetPresetMatcher updateMatcher()
+    {
+        MNetPresetMatcher matcher = new MNetPresetMatcher();
+
+        matcher.update(presets, devices);
+
+        return matcher;
+    }
+
+}
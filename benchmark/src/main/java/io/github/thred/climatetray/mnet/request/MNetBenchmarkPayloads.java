@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetEc;
+
+/**
+ * Creates the payloads for the benchmarks. The items are modelled on the samples in "doc/mnet-test.xml".
+ *
+ * @author Manfred Hantschel
+ */
+public final class MNetBenchmarkPayloads
+{
+
+    private static final String[] DRIVES = {"ON", "OFF"};
+    private static final String[] MODES = {"COOL", "HEAT", "DRY", "FAN", "AUTO"};
+    private static final String[] AIRS = {"HORIZONTAL", "MID1", "MID2", "VERTICAL", "SWING"};
+    private static final String[] FANS = {"LOW", "MID2", "MID1", "HIGH"};
+
+    /**
+     * Creates air conditioners with the groups 1 to count.
+     *
+     * @param count the number of air conditioners
+     * @return the air conditioners
+     */
+    public static List<MNetDevice> createDevices(int count)
+    {
+        List<MNetDevice> devices = new ArrayList<>();
+
+        for (int i = 1; i <= count; i += 1)
+        {
+            MNetDevice device = new MNetDevice();
+
+            device.setHost("localhost");
+            device.setEc(MNetEc.EC_1);
+            device.setAddress(i);
+            device.setGroup(i);
+
+            devices.add(device);
+        }
+
+        return devices;
+    }
+
+    /**
+     * Creates the response of a monitor request for the groups 1 to count.
+     *
+     * @param count the number of items
+     * @return the response, encoded with UTF-8
+     */
+    public static byte[] createMonitorResponse(int count)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+        builder.append("<Packet>\n");
+        builder.append("<Command>getResponse</Command>\n");
+        builder.append("<DatabaseManager>\n");
+
+        for (int i = 1; i <= count; i += 1)
+        {
+            builder
+                .append(String.format("<Mnet Ec=\"1\" Group=\"%d\" Drive=\"%s\" Mode=\"%s\" SetTemp=\"%d\" "
+                    + "InletTemp=\"%d.%d\" AirDirection=\"%s\" FanSpeed=\"%s\" />\n", i, DRIVES[i % DRIVES.length],
+                    MODES[i % MODES.length], 19 + (i % 10), 18 + (i % 12), i % 10, AIRS[i % AIRS.length],
+                    FANS[i % FANS.length]));
+        }
+
+        builder.append("</DatabaseManager>\n");
+        builder.append("</Packet>\n");
+
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private MNetBenchmarkPayloads()
+    {
+        super();
+    }
+
+}
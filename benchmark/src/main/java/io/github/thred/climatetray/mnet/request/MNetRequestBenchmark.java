@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet.request;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.util.DomUtils;
+import io.github.thred.climatetray.util.XmlBuilder;
+
+/**
+ * Benchmarks the building of the requests and the parsing of the responses of the monitor request. The benchmark
+ * lives in the package of the requests, because the methods are protected.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class MNetRequestBenchmark
+{
+
+    /**
+     * The monitor request caches the encoded requests. This request builds the same content each time.
+     */
+    private static class UncachedMonitorRequest extends AbstractMNetDeviceRequest
+    {
+        private final MNetMonitorRequest delegate = new MNetMonitorRequest();
+
+        UncachedMonitorRequest(List<MNetDevice> devices)
+        {
+            super();
+
+            for (MNetDevice device : devices)
+            {
+                addRequestItem(new MNetDeviceRequestItem(device));
+            }
+        }
+
+        @Override
+        protected String getRequestCommand()
+        {
+            return delegate.getRequestCommand();
+        }
+
+        @Override
+        protected void buildRequestItemContent(XmlBuilder builder, MNetDeviceRequestItem item)
+            throws MNetRequestException
+        {
+            delegate.buildRequestItemContent(builder, item);
+        }
+    }
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    @Param({"1", "50", "250"})
+    public int count;
+
+    private List<MNetDevice> devices;
+    private UncachedMonitorRequest uncachedRequest;
+    private byte[] response;
+    private List<Node> nodes;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        devices = MNetBenchmarkPayloads.createDevices(count);
+        uncachedRequest = new UncachedMonitorRequest(devices);
+        response = MNetBenchmarkPayloads.createMonitorResponse(count);
+
+        Document document = DomUtils.read(new ByteArrayInputStream(response));
+
+        nodes = DomUtils.findAll(document, "//Mnet");
+    }
+
+    /**
+     * Creates the monitor request as the poll does in each cycle. The encoded request is cached.
+     *
+     * @return the request
+     * @throws MNetRequestException on occasion
+     */
+    @Benchmark
+    public byte[] buildRequest() throws MNetRequestException
+    {
+        MNetMonitorRequest request = new MNetMonitorRequest();
+
+        for (MNetDevice device : devices)
+        {
+            request.addDevice(device);
+        }
+
+        return request.buildRequest();
+    }
+
+    @Benchmark
+    public byte[] buildRequestUncached() throws MNetRequestException
+    {
+        return uncachedRequest.buildRequest();
+    }
+
+    @Benchmark
+    public MNetMonitorRequest parseResponseWithStream() throws IOException, MNetRequestException
+    {
+        MNetMonitorRequest request = new MNetMonitorRequest();
+
+        request.parseResponseWithStream(new ByteArrayInputStream(response));
+
+        return request;
+    }
+
+    @Benchmark
+    public MNetMonitorRequest parseResponseWithDom() throws IOException, MNetRequestException
+    {
+        MNetMonitorRequest request = new MNetMonitorRequest();
+
+        request.parseResponseWithDom(new ByteArrayInputStream(response));
+
+        return request;
+    }
+
+    @Benchmark
+    public void parseItemsFromNodes(Blackhole blackhole)
+    {
+        for (Node node : nodes)
+        {
+            blackhole.consume(MNetDeviceRequestItem.parse(node));
+        }
+    }
+
+    @Benchmark
+    public void parseItemsFromStream(Blackhole blackhole) throws XMLStreamException
+    {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(response));
+
+        try
+        {
+            while (reader.hasNext())
+            {
+                if ((reader.next() == XMLStreamConstants.START_ELEMENT) && ("Mnet".equals(reader.getLocalName())))
+                {
+                    blackhole.consume(MNetDeviceRequestItem.parse(reader));
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+}
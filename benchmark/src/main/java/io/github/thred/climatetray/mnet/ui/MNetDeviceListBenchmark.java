@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet.ui;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.swing.JList;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.thred.climatetray.mnet.MNetBenchmarkStates;
+import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetState;
+
+/**
+ * Benchmarks the rendering of a large list of devices, like scrolling through the whole list in the preferences.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class MNetDeviceListBenchmark
+{
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 32;
+
+    @Param({"100", "500"})
+    public int count;
+
+    private MNetDevice[] devices;
+    private JList<MNetDevice> list;
+    private MNetDeviceCellRenderer renderer;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    @Setup
+    public void setup()
+    {
+        List<MNetState> allStates = MNetBenchmarkStates.createAllStates();
+        List<MNetState> states = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i += 1)
+        {
+            states.add(allStates.get(i % allStates.size()));
+        }
+
+        devices = MNetBenchmarkStates.createDevices(states).toArray(new MNetDevice[count]);
+        list = new JList<>(devices);
+        renderer = new MNetDeviceCellRenderer();
+        image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        graphics = image.createGraphics();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        graphics.dispose();
+    }
+
+    /**
+     * Renders and paints each cell of the list once.
+     *
+     * @return the image
+     */
+    @Benchmark
+    public BufferedImage paintList()
+    {
+        for (int i = 0; i < devices.length; i += 1)
+        {
+            Component component = renderer.getListCellRendererComponent(list, devices[i], i, (i % 10) == 0, false);
+
+            component.setBounds(0, 0, WIDTH, HEIGHT);
+            component.paint(graphics);
+        }
+
+        return image;
+    }
+
+}
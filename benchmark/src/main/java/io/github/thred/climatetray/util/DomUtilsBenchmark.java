@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import io.github.thred.climatetray.mnet.request.MNetBenchmarkPayloads;
+
+/**
+ * Benchmarks the XPath lookups in the response of the monitor request, as used by the DOM parser.
+ *
+ * @author Manfred Hantschel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-DlogDirectory=target/logs"})
+public class DomUtilsBenchmark
+{
+
+    @Param({"1", "50", "250"})
+    public int count;
+
+    private Document document;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        document = DomUtils.read(new ByteArrayInputStream(MNetBenchmarkPayloads.createMonitorResponse(count)));
+    }
+
+    /**
+     * Looks for the error, that is missing in the response. This is the lookup of each response.
+     *
+     * @return null
+     */
+    @Benchmark
+    public Node findMissing()
+    {
+        return DomUtils.find(document, "//ERROR");
+    }
+
+    @Benchmark
+    public Node find()
+    {
+        return DomUtils.find(document, "//Mnet");
+    }
+
+    @Benchmark
+    public List<Node> findAll()
+    {
+        return DomUtils.findAll(document, "//Mnet");
+    }
+
+}
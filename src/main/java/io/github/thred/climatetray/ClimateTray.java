@@ -14,18 +14,43 @@
  */
 package io.github.thred.climatetray;
 
+import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Locale;
 
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 
+import io.github.thred.climatetray.util.Severity;
+import io.github.thred.climatetray.util.message.AbstractMessageAppender.OverflowPolicy;
 import io.github.thred.climatetray.util.message.MessageBuffer;
+import io.github.thred.climatetray.util.message.RollingFileMessageAppender;
+import io.github.thred.climatetray.util.message.SystemStreamMessageAppender;
 
 public class ClimateTray
 {
 
-    public static final MessageBuffer LOG = new MessageBuffer(true, 1024);
+    public static final MessageBuffer LOG = new MessageBuffer(false, 1024);
+    public static final SystemStreamMessageAppender CONSOLE_LOG =
+        new SystemStreamMessageAppender(4096, OverflowPolicy.DISCARD);
+
+    static
+    {
+        LOG.addMessageListener(CONSOLE_LOG);
+
+        CONSOLE_LOG.start();
+    }
+
+    /**
+     * The log files. The appender gets started by {@link #main(String[])}, thus tools and benchmarks, that use the
+     * log, do not write any files.
+     */
+    public static final RollingFileMessageAppender FILE_LOG = new RollingFileMessageAppender(
+        new File(System.getProperty("logDirectory",
+            System.getProperty("user.home") + File.separator + ".climate-tray" + File.separator + "logs")),
+        "climate-tray", Long.getLong("logFileSize", 4 * 1024 * 1024), Integer.getInteger("logFileCount", 5),
+        getSeverity("logFileThreshold", Severity.INFO), 4096, OverflowPolicy.DISCARD_BELOW_WARN);
     public static final ClimateTrayPreferences PREFERENCES = new ClimateTrayPreferences();
     public static final URL HOMEPAGE;
 
@@ -54,9 +79,35 @@ public class ClimateTray
         }
     }
 
+    private static Severity getSeverity(String key, Severity defaultSeverity)
+    {
+        String value = System.getProperty(key);
+
+        if (value == null)
+        {
+            return defaultSeverity;
+        }
+
+        try
+        {
+            return Severity.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            LOG.warn("Invalid severity \"%s\" in property \"%s\", using %s.", value, key, defaultSeverity);
+
+            return defaultSeverity;
+        }
+    }
+
     public static void main(String[] arguments)
     {
+        LOG.addMessageListener(FILE_LOG);
+
+        FILE_LOG.start();
+
         ClimateTrayService.load();
+        ClimateTrayService.preload();
         ClimateTrayService.prepare();
         ClimateTrayService.scheduleUpdate();
         ClimateTrayService.checkVersion();
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Provides the images of the atlases, built by the {@link ClimateTrayAtlasBuilder}. Each atlas contains all images of
+ * one size, thus it is decoded once and the images are served as sub-images. If an atlas is missing (e.g. when running
+ * from an IDE without the build step), the images have to be loaded one by one.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayAtlas
+{
+
+    private static class Entry
+    {
+        private final int size;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        Entry(int size, String bounds)
+        {
+            super();
+
+            String[] values = bounds.split(",");
+
+            this.size = size;
+            x = Integer.parseInt(values[0].trim());
+            y = Integer.parseInt(values[1].trim());
+            width = Integer.parseInt(values[2].trim());
+            height = Integer.parseInt(values[3].trim());
+        }
+    }
+
+    private static Map<String, Entry> entries = null;
+    private static final Map<Integer, BufferedImage> atlases = new HashMap<>();
+
+    public static String getAtlasName(int size)
+    {
+        return "atlas-" + size + ".png";
+    }
+
+    public static String getIndexName(int size)
+    {
+        return "atlas-" + size + ".properties";
+    }
+
+    /**
+     * Returns the image from the atlas.
+     *
+     * @param resourceName the name of the resource
+     * @return the image, null if the image is not part of an atlas
+     */
+    public static synchronized Image getImage(String resourceName)
+    {
+        Entry entry = getEntries().get(resourceName);
+
+        if (entry == null)
+        {
+            return null;
+        }
+
+        BufferedImage atlas = atlases.get(entry.size);
+
+        if (atlas == null)
+        {
+            atlas = readAtlas(entry.size);
+
+            if (atlas == null)
+            {
+                entries.values().removeIf(current -> current.size == entry.size);
+
+                return null;
+            }
+
+            atlases.put(entry.size, atlas);
+        }
+
+        return atlas.getSubimage(entry.x, entry.y, entry.width, entry.height);
+    }
+
+    private static Map<String, Entry> getEntries()
+    {
+        if (entries != null)
+        {
+            return entries;
+        }
+
+        entries = new HashMap<>();
+
+        for (int size : ClimateTrayCache.SIZES)
+        {
+            URL url = ClimateTrayCache.getResourceUrl(getIndexName(size));
+
+            if (url == null)
+            {
+                LOG.debug("No image atlas for size %d, loading single images.", size);
+
+                continue;
+            }
+
+            Properties index = new Properties();
+
+            try (InputStream in = url.openStream())
+            {
+                index.load(in);
+            }
+            catch (IOException e)
+            {
+                LOG.warn("Failed to read index of image atlas for size %d, loading single images.", e, size);
+
+                continue;
+            }
+
+            index.stringPropertyNames().forEach(name -> entries.put(name, new Entry(size, index.getProperty(name))));
+        }
+
+        return entries;
+    }
+
+    private static BufferedImage readAtlas(int size)
+    {
+        URL url = ClimateTrayCache.getResourceUrl(getAtlasName(size));
+
+        if (url == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            return ImageIO.read(url);
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Failed to read image atlas for size %d, loading single images.", e, size);
+
+            return null;
+        }
+    }
+
+    private ClimateTrayAtlas()
+    {
+        super();
+    }
+
+}
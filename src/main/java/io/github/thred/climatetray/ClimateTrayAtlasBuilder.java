@@ -0,0 +1,152 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Packs the resources of all {@link ClimateTrayImage}s of one size into one atlas image and writes an index with the
+ * bounds of each image. Runs as step of the build (see pom.xml).
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayAtlasBuilder
+{
+
+    private static final int COLUMNS = 8;
+
+    public static void main(String[] arguments) throws IOException
+    {
+        if (arguments.length != 1)
+        {
+            throw new IllegalArgumentException("Usage: ClimateTrayAtlasBuilder <directory of the images>");
+        }
+
+        File directory = new File(arguments[0]);
+
+        for (int size : ClimateTrayCache.SIZES)
+        {
+            build(directory, size);
+        }
+    }
+
+    protected static void build(File directory, int size) throws IOException
+    {
+        List<String> resourceNames = new ArrayList<>();
+        List<BufferedImage> images = new ArrayList<>();
+
+        for (ClimateTrayImage image : ClimateTrayImage.values())
+        {
+            String resourceName = image.getResourceName(size);
+            File file = new File(directory, resourceName);
+
+            if (file.exists())
+            {
+                resourceNames.add(resourceName);
+                images.add(ImageIO.read(file));
+            }
+        }
+
+        int rows = (images.size() + COLUMNS - 1) / COLUMNS;
+        BufferedImage atlas =
+            new BufferedImage(COLUMNS * size, Math.max(rows, 1) * size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = atlas.createGraphics();
+        Map<String, String> index = new TreeMap<>();
+
+        for (int i = 0; i < images.size(); i += 1)
+        {
+            BufferedImage image = images.get(i);
+            int x = (i % COLUMNS) * size;
+            int y = (i / COLUMNS) * size;
+
+            if ((image.getWidth() > size) || (image.getHeight() > size))
+            {
+                throw new IllegalArgumentException(
+                    String.format("The image %s does not fit into %d x %d", resourceNames.get(i), size, size));
+            }
+
+            g.drawImage(image, x, y, null);
+
+            index.put(resourceNames.get(i), String.format("%d,%d,%d,%d", x, y, image.getWidth(), image.getHeight()));
+        }
+
+        g.dispose();
+
+        ImageIO.write(atlas, "png", new File(directory, ClimateTrayAtlas.getAtlasName(size)));
+
+        writeIndex(new File(directory, ClimateTrayAtlas.getIndexName(size)), index,
+            String.format("Atlas of %d images with %d pixels", images.size(), size));
+    }
+
+    /**
+     * Writes the index in the format of {@link java.util.Properties#load(java.io.InputStream)}. Unlike
+     * {@link java.util.Properties#store(java.io.OutputStream, String)}, it writes no date and sorts the entries, thus
+     * the build is reproducible.
+     *
+     * @param file the file
+     * @param index the entries
+     * @param comment the comment
+     * @throws IOException on occasion
+     */
+    protected static void writeIndex(File file, Map<String, String> index, String comment) throws IOException
+    {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.ISO_8859_1))
+        {
+            writer.write("# " + comment + "\n");
+
+            for (Map.Entry<String, String> entry : index.entrySet())
+            {
+                writer.write(escape(entry.getKey()) + "=" + escape(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+    private static String escape(String value)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (char ch : value.toCharArray())
+        {
+            if ((ch < 0x20) || (ch > 0x7e))
+            {
+                builder.append(String.format("\\u%04x", (int) ch));
+            }
+            else
+            {
+                if ("\\=:#! ".indexOf(ch) >= 0)
+                {
+                    builder.append('\\');
+                }
+
+                builder.append(ch);
+            }
+        }
+
+        return builder.toString();
+    }
+
+}
@@ -14,21 +14,60 @@
  */
 package io.github.thred.climatetray;
 
+import static io.github.thred.climatetray.ClimateTray.*;
+
 import java.awt.Image;
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.imageio.ImageIO;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 
+/**
+ * Caches images and icons. The cache is thread-safe and bounded, the least recently used entries get removed first.
+ *
+ * @author Manfred Hantschel
+ */
 public class ClimateTrayCache
 {
 
-    private static final Map<String, Image> images = new HashMap<>(0);
-    private static final Map<String, Icon> icons = new HashMap<>(0);
+    /**
+     * The sizes of the images, that are available as resources.
+     */
+    public static final int[] SIZES = {16, 24, 32, 48, 64};
+
+    private static final int MAX_IMAGES = 1024;
+    private static final int MAX_ICONS = 512;
+
+    private static final Map<String, Image> images = createMap(MAX_IMAGES);
+    private static final Map<String, Icon> icons = createMap(MAX_ICONS);
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong loads = new AtomicLong();
+    private static final AtomicLong loadNanos = new AtomicLong();
+
+    private static <VALUE_TYPE> Map<String, VALUE_TYPE> createMap(int maxSize)
+    {
+        return Collections.synchronizedMap(new LinkedHashMap<String, VALUE_TYPE>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = -7429562014584706826L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VALUE_TYPE> eldest)
+            {
+                return size() > maxSize;
+            }
+        });
+    }
 
     public static Image getImage(String resourceName)
     {
@@ -36,33 +75,72 @@ public class ClimateTrayCache
 
         if (image != null)
         {
+            hits.incrementAndGet();
+
             return image;
         }
 
-        URL resourceUrl = getResourceUrl(resourceName);
+        misses.incrementAndGet();
 
-        if (resourceUrl == null)
-        {
-            return null;
-        }
+        return loadImage(resourceName);
+    }
 
-        try
-        {
-            image = ImageIO.read(resourceUrl);
-        }
-        catch (IOException e)
+    /**
+     * Returns the cached image or loads it, without counting a hit or a miss. Only lookups of the user count.
+     *
+     * @param resourceName the name of the image
+     * @return the image, null if there is no such resource
+     */
+    private static Image lookupImage(String resourceName)
+    {
+        Image image = images.get(resourceName);
+
+        return (image != null) ? image : loadImage(resourceName);
+    }
+
+    private static Image loadImage(String resourceName)
+    {
+        long startNanos = System.nanoTime();
+
+        Image image = ClimateTrayAtlas.getImage(resourceName);
+
+        if (image == null)
         {
-            throw new ClimateTrayException("Could not read image: " + resourceName, e);
+            URL resourceUrl = getResourceUrl(resourceName);
+
+            if (resourceUrl == null)
+            {
+                return null;
+            }
+
+            try
+            {
+                image = ImageIO.read(resourceUrl);
+            }
+            catch (IOException e)
+            {
+                throw new ClimateTrayException("Could not read image: " + resourceName, e);
+            }
         }
 
+        loads.incrementAndGet();
+        loadNanos.addAndGet(System.nanoTime() - startNanos);
+
         return addImage(resourceName, image);
     }
 
+    /**
+     * Adds the image, if there is no image with the same name, yet.
+     *
+     * @param resourceName the name of the image
+     * @param image the image
+     * @return the cached image
+     */
     public static Image addImage(String resourceName, Image image)
     {
-        images.put(resourceName, image);
+        Image existingImage = images.putIfAbsent(resourceName, image);
 
-        return image;
+        return (existingImage != null) ? existingImage : image;
     }
 
     public static Icon getIcon(String resourceName)
@@ -71,10 +149,14 @@ public class ClimateTrayCache
 
         if (icon != null)
         {
+            hits.incrementAndGet();
+
             return icon;
         }
 
-        Image image = getImage(resourceName);
+        misses.incrementAndGet();
+
+        Image image = lookupImage(resourceName);
 
         if (image == null)
         {
@@ -86,11 +168,27 @@ public class ClimateTrayCache
         return addIcon(resourceName, icon);
     }
 
+    /**
+     * Adds the icon, if there is no icon with the same name, yet.
+     *
+     * @param resourceName the name of the icon
+     * @param icon the icon
+     * @return the cached icon
+     */
     public static Icon addIcon(String resourceName, Icon icon)
     {
-        icons.put(resourceName, icon);
+        Icon existingIcon = icons.putIfAbsent(resourceName, icon);
 
-        return icon;
+        return (existingIcon != null) ? existingIcon : icon;
+    }
+
+    /**
+     * Removes all images and icons. They will be loaded again, when needed.
+     */
+    public static void clear()
+    {
+        images.clear();
+        icons.clear();
     }
 
     public static URL getResourceUrl(String resourceName)
@@ -98,6 +196,62 @@ public class ClimateTrayCache
         return ClimateTray.class.getResource(resourceName);
     }
 
+    /**
+     * Loads the resources of all {@link ClimateTrayImage}s in all sizes, thus they are available, when needed. Call it
+     * on a background thread.
+     */
+    public static void preload()
+    {
+        long startNanos = System.nanoTime();
+        int count = 0;
+
+        for (ClimateTrayImage image : ClimateTrayImage.values())
+        {
+            for (int size : SIZES)
+            {
+                if (lookupImage(image.getResourceName(size)) != null)
+                {
+                    count += 1;
+                }
+            }
+        }
+
+        LOG
+            .debug("Preloaded %d images in %d ms.", count,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Estimates the memory used by the cached images, assuming 4 bytes per pixel.
+     *
+     * @return the memory in bytes
+     */
+    public static long estimateMemoryUsage()
+    {
+        List<Image> cachedImages;
+
+        synchronized (images)
+        {
+            cachedImages = new ArrayList<>(images.values());
+        }
+
+        return cachedImages
+            .stream()
+            .mapToLong(image -> Math.max(image.getWidth(null), 0) * (long) Math.max(image.getHeight(null), 0) * 4)
+            .sum();
+    }
+
+    public static String describeStatistics()
+    {
+        long currentLoads = loads.get();
+
+        return String
+            .format("[images=%d, icons=%d, hits=%d, misses=%d, loads=%d, averageLoad=%.2f ms, memory=%d KB]",
+                images.size(), icons.size(), hits.get(), misses.get(), currentLoads,
+                (currentLoads > 0) ? loadNanos.get() / 1000000.0 / currentLoads : 0.0,
+                estimateMemoryUsage() / 1024);
+    }
+
     private ClimateTrayCache()
     {
         super();
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * Holds long-living HTTP clients backed by a connection pool. There is one client per proxy configuration. The clients
+ * get rebuilt, when the proxy settings change. The clients are leased, thus a client, that is replaced, gets closed
+ * after the last request using it has finished.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayHttpClientPool
+{
+
+    /**
+     * The maximum number of simultaneous connections to one host.
+     */
+    public static final int MAX_CONNECTIONS_PER_ROUTE = 4;
+
+    private static final int MAX_CONNECTIONS_TOTAL = 64;
+    private static final int MAX_IDLE_TIME_IN_SECONDS = 30;
+
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+    private static final Set<Entry> RETIRED_ENTRIES = new HashSet<>();
+
+    private static String baseKey = null;
+
+    private static class Entry
+    {
+        private final PoolingHttpClientConnectionManager connectionManager;
+        private final CloseableHttpClient client;
+
+        private int leaseCount = 0;
+        private boolean retired = false;
+
+        Entry(PoolingHttpClientConnectionManager connectionManager, CloseableHttpClient client)
+        {
+            super();
+
+            this.connectionManager = connectionManager;
+            this.client = client;
+        }
+    }
+
+    /**
+     * A lease of an HTTP client. Close the lease, not the client, when the request has been finished.
+     */
+    public static final class Lease implements AutoCloseable
+    {
+        private final Entry entry;
+
+        private boolean closed = false;
+
+        Lease(Entry entry)
+        {
+            super();
+
+            this.entry = entry;
+        }
+
+        public CloseableHttpClient getClient()
+        {
+            return entry.client;
+        }
+
+        @Override
+        public void close()
+        {
+            if (closed)
+            {
+                return;
+            }
+
+            closed = true;
+
+            release(entry);
+        }
+    }
+
+    /**
+     * Leases the HTTP client for the current proxy settings. The lease must be closed, when the request has been
+     * finished, including the reading of the response.
+     *
+     * @param additionalProxyExcludes additional hosts, that should bypass the proxy
+     * @return the lease
+     */
+    public static synchronized Lease lease(String... additionalProxyExcludes)
+    {
+        ClimateTrayProxySettings proxySettings = PREFERENCES.getProxySettings();
+        String currentBaseKey = proxySettings.getHttpClientKey();
+
+        if (!currentBaseKey.equals(baseKey))
+        {
+            if (baseKey != null)
+            {
+                LOG.info("Proxy settings changed. Rebuilding HTTP clients.");
+            }
+
+            retireAll();
+
+            baseKey = currentBaseKey;
+        }
+
+        String key = proxySettings.getHttpClientKey(additionalProxyExcludes);
+        Entry entry = ENTRIES.get(key);
+
+        if (entry == null)
+        {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+
+            connectionManager.setMaxTotal(MAX_CONNECTIONS_TOTAL);
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+
+            CloseableHttpClient client = proxySettings
+                .createHttpClientBuilder(additionalProxyExcludes)
+                .setConnectionManager(connectionManager)
+                .setRequestExecutor(new ClimateTrayHttpRequestExecutor())
+                .evictExpiredConnections()
+                .evictIdleConnections(MAX_IDLE_TIME_IN_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+            entry = new Entry(connectionManager, client);
+
+            ENTRIES.put(key, entry);
+
+            LOG.debug("Created HTTP client for proxy configuration: %s", proxySettings);
+        }
+
+        entry.leaseCount += 1;
+
+        return new Lease(entry);
+    }
+
+    private static synchronized void release(Entry entry)
+    {
+        entry.leaseCount -= 1;
+
+        if ((entry.retired) && (entry.leaseCount <= 0) && (RETIRED_ENTRIES.remove(entry)))
+        {
+            close(entry);
+        }
+    }
+
+    /**
+     * Returns the statistics of all connection pools, summed up by the host.
+     *
+     * @return the statistics by host
+     */
+    public static synchronized Map<String, PoolStats> getStatistics()
+    {
+        Map<String, PoolStats> result = new TreeMap<>();
+        List<Entry> entries = new ArrayList<>(ENTRIES.values());
+
+        entries.addAll(RETIRED_ENTRIES);
+
+        for (Entry entry : entries)
+        {
+            for (HttpRoute route : entry.connectionManager.getRoutes())
+            {
+                PoolStats stats = entry.connectionManager.getStats(route);
+
+                result.merge(route.getTargetHost().toHostString(), stats,
+                    (a, b) -> new PoolStats(a.getLeased() + b.getLeased(), a.getPending() + b.getPending(),
+                        a.getAvailable() + b.getAvailable(), a.getMax() + b.getMax()));
+            }
+        }
+
+        return result;
+    }
+
+    public static String describeStatistics()
+    {
+        return getStatistics()
+            .entrySet()
+            .stream()
+            .map(entry -> String.format("%s [leased=%d, available=%d, pending=%d]", entry.getKey(),
+                entry.getValue().getLeased(), entry.getValue().getAvailable(), entry.getValue().getPending()))
+            .collect(Collectors.joining(", "));
+    }
+
+    public static synchronized void shutdown()
+    {
+        ENTRIES.values().forEach(ClimateTrayHttpClientPool::close);
+        ENTRIES.clear();
+
+        RETIRED_ENTRIES.forEach(ClimateTrayHttpClientPool::close);
+        RETIRED_ENTRIES.clear();
+
+        baseKey = null;
+    }
+
+    /**
+     * Removes all clients. Clients, that are not leased, get closed immediately, all others when released.
+     */
+    private static void retireAll()
+    {
+        for (Entry entry : ENTRIES.values())
+        {
+            entry.retired = true;
+
+            if (entry.leaseCount > 0)
+            {
+                RETIRED_ENTRIES.add(entry);
+            }
+            else
+            {
+                close(entry);
+            }
+        }
+
+        ENTRIES.clear();
+    }
+
+    private static void close(Entry entry)
+    {
+        try
+        {
+            entry.client.close();
+        }
+        catch (IOException e)
+        {
+            LOG.warn("Failed to close HTTP client", e);
+        }
+    }
+
+    private ClimateTrayHttpClientPool()
+    {
+        super();
+    }
+
+}
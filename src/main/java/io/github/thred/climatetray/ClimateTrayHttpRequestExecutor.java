@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import java.io.IOException;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+/**
+ * Remembers, when the request has been sent, in the context of the request. The executor gets called, after the
+ * connection has been established, thus the times split the request into the connect, send and wait phase.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayHttpRequestExecutor extends HttpRequestExecutor
+{
+
+    public static final String SEND_START_NANOS = "climatetray.sendStartNanos";
+    public static final String SEND_END_NANOS = "climatetray.sendEndNanos";
+
+    /**
+     * Returns the time stored in the context.
+     *
+     * @param context the context
+     * @param name the name of the time
+     * @return the time in nanoseconds ({@link System#nanoTime()}), 0 if not reached
+     */
+    public static long getNanos(HttpContext context, String name)
+    {
+        Object value = context.getAttribute(name);
+
+        return (value instanceof Long) ? (Long) value : 0;
+    }
+
+    public ClimateTrayHttpRequestExecutor()
+    {
+        super();
+    }
+
+    @Override
+    protected HttpResponse doSendRequest(HttpRequest request, HttpClientConnection conn, HttpContext context)
+        throws IOException, HttpException
+    {
+        context.setAttribute(SEND_START_NANOS, System.nanoTime());
+
+        try
+        {
+            return super.doSendRequest(request, conn, context);
+        }
+        finally
+        {
+            context.setAttribute(SEND_END_NANOS, System.nanoTime());
+        }
+    }
+
+}
@@ -169,7 +169,7 @@ public enum ClimateTrayImage
         return ClimateTrayCache.addIcon(iconName, new ImageIcon(getImage(state, size)));
     }
 
-    private String getResourceName(int size)
+    String getResourceName(int size)
     {
         return name().toLowerCase().replace('_', '-') + "-" + size + ".png";
     }
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.thred.climatetray.mnet.MNetMetrics;
+
+/**
+ * Serves the metrics of the requests in the OpenMetrics text format at http://localhost:PORT/metrics. The server is
+ * only started, if the system property "metricsPort" is set. It binds to the loopback address only.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayMetricsServer
+{
+
+    private static final int PORT = Integer.getInteger("metricsPort", 0);
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private static HttpServer server = null;
+
+    public static synchronized void start()
+    {
+        if ((PORT <= 0) || (server != null))
+        {
+            return;
+        }
+
+        try
+        {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PORT), 0);
+
+            server.createContext("/metrics", ClimateTrayMetricsServer::handle);
+            server.start();
+
+            LOG.info("Serving metrics at http://localhost:%d/metrics.", PORT);
+        }
+        catch (IOException e)
+        {
+            server = null;
+
+            LOG.warn("Failed to start metrics server on port %d.", e, PORT);
+        }
+    }
+
+    public static synchronized void stop()
+    {
+        if (server == null)
+        {
+            return;
+        }
+
+        server.stop(0);
+        server = null;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1);
+
+                return;
+            }
+
+            byte[] body = MNetMetrics.toOpenMetrics().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody())
+            {
+                out.write(body);
+            }
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    private ClimateTrayMetricsServer()
+    {
+        super();
+    }
+
+}
@@ -39,6 +39,9 @@ public class ClimateTrayPreferences implements MNetDeviceList, MNetPresetList, P
     private int version = 0;
     private TemperatureUnit temperatureUnit = TemperatureUnit.CELSIUS;
     private int updatePeriodInSeconds = 60;
+    private int minUpdatePeriodInSeconds = 10;
+    private int maxUpdatePeriodInSeconds = 600;
+    private int maxRequestsPerController = 2;
     private boolean versionCheckEnabled = true;
     private boolean trayIconEnabled = true;
     private Point windowLocation = new Point();
@@ -113,6 +116,36 @@ public class ClimateTrayPreferences implements MNetDeviceList, MNetPresetList, P
         this.updatePeriodInSeconds = updatePeriodInSeconds;
     }
 
+    public int getMinUpdatePeriodInSeconds()
+    {
+        return minUpdatePeriodInSeconds;
+    }
+
+    public void setMinUpdatePeriodInSeconds(int minUpdatePeriodInSeconds)
+    {
+        this.minUpdatePeriodInSeconds = minUpdatePeriodInSeconds;
+    }
+
+    public int getMaxUpdatePeriodInSeconds()
+    {
+        return maxUpdatePeriodInSeconds;
+    }
+
+    public void setMaxUpdatePeriodInSeconds(int maxUpdatePeriodInSeconds)
+    {
+        this.maxUpdatePeriodInSeconds = maxUpdatePeriodInSeconds;
+    }
+
+    public int getMaxRequestsPerController()
+    {
+        return maxRequestsPerController;
+    }
+
+    public void setMaxRequestsPerController(int maxRequestsPerController)
+    {
+        this.maxRequestsPerController = maxRequestsPerController;
+    }
+
     public boolean isVersionCheckEnabled()
     {
         return versionCheckEnabled;
@@ -155,6 +188,9 @@ public class ClimateTrayPreferences implements MNetDeviceList, MNetPresetList, P
 
         temperatureUnit = prefs.getEnum(TemperatureUnit.class, "temperatureUnit", temperatureUnit);
         updatePeriodInSeconds = prefs.getInteger("updatePeriodInSeconds", updatePeriodInSeconds);
+        minUpdatePeriodInSeconds = prefs.getInteger("minUpdatePeriodInSeconds", minUpdatePeriodInSeconds);
+        maxUpdatePeriodInSeconds = prefs.getInteger("maxUpdatePeriodInSeconds", maxUpdatePeriodInSeconds);
+        maxRequestsPerController = prefs.getInteger("maxRequestsPerController", maxRequestsPerController);
         versionCheckEnabled = prefs.getBoolean("versionCheckEnabled", versionCheckEnabled);
         trayIconEnabled = prefs.getBoolean("trayIconEnabled", trayIconEnabled);
         windowLocation = new Point(prefs.getInteger("window.x", -1), prefs.getInteger("window.y", -1));
@@ -174,6 +210,9 @@ public class ClimateTrayPreferences implements MNetDeviceList, MNetPresetList, P
 
         prefs.setEnum("temperatureUnit", temperatureUnit);
         prefs.setInteger("updatePeriodInSeconds", updatePeriodInSeconds);
+        prefs.setInteger("minUpdatePeriodInSeconds", minUpdatePeriodInSeconds);
+        prefs.setInteger("maxUpdatePeriodInSeconds", maxUpdatePeriodInSeconds);
+        prefs.setInteger("maxRequestsPerController", maxRequestsPerController);
         prefs.setBoolean("versionCheckEnabled", versionCheckEnabled);
         prefs.setBoolean("trayIconEnabled", trayIconEnabled);
         prefs.setInteger("window.x", windowLocation.x);
@@ -186,8 +225,10 @@ public class ClimateTrayPreferences implements MNetDeviceList, MNetPresetList, P
         return String
             .format(
                 "ClimateTrayPreferences [proxySettings=%s, devices=%s, presets=%s, version=%s, temperatureUnit=%s, "
-                    + "updatePeriodInSeconds=%s, versionCheckEnabled=%s, trayIconEnabled=%s, windowLocation=%s]",
-                proxySettings, devices, presets, version, temperatureUnit, updatePeriodInSeconds, versionCheckEnabled,
+                    + "updatePeriodInSeconds=%s, minUpdatePeriodInSeconds=%s, maxUpdatePeriodInSeconds=%s, "
+                    + "maxRequestsPerController=%s, versionCheckEnabled=%s, trayIconEnabled=%s, windowLocation=%s]",
+                proxySettings, devices, presets, version, temperatureUnit, updatePeriodInSeconds,
+                minUpdatePeriodInSeconds, maxUpdatePeriodInSeconds, maxRequestsPerController, versionCheckEnabled,
                 trayIconEnabled, windowLocation);
     }
 
@@ -27,9 +27,7 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.conn.routing.HttpRoutePlanner;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.DefaultProxyRoutePlanner;
 import org.apache.http.protocol.HttpContext;
 
@@ -127,16 +125,47 @@ public class ClimateTrayProxySettings implements Persistent
         this.proxyExcludes = proxyExcludes;
     }
 
-    public CloseableHttpClient createHttpClient(String... additionalProxyExcludes)
+    /**
+     * Returns a key, that identifies the configuration of the proxy. Two HTTP clients created with the same key will
+     * behave the same.
+     *
+     * @param additionalProxyExcludes additional hosts, that should bypass the proxy
+     * @return the key
+     */
+    public String getHttpClientKey(String... additionalProxyExcludes)
+    {
+        StringBuilder builder = new StringBuilder().append(proxyType);
+
+        if (proxyType == ProxyType.USER_DEFINED)
+        {
+            builder.append("|").append(proxyHost).append(":").append(proxyPort);
+
+            if (proxyAuthorizationNeeded)
+            {
+                builder.append("|").append(proxyUser).append("|").append(proxyPassword);
+            }
+
+            builder.append("|").append(proxyExcludes);
+
+            for (String additionalProxyExclude : additionalProxyExcludes)
+            {
+                builder.append("|").append(additionalProxyExclude);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    public HttpClientBuilder createHttpClientBuilder(String... additionalProxyExcludes)
     {
         if (proxyType == ProxyType.NONE)
         {
-            return HttpClients.createDefault();
+            return HttpClientBuilder.create();
         }
 
         if (proxyType == ProxyType.SYSTEM_DEFAULT)
         {
-            return HttpClients.createSystem();
+            return HttpClientBuilder.create().useSystemProperties();
         }
 
         HttpHost proxy = new HttpHost(getProxyHost(), getProxyPort());
@@ -217,7 +246,7 @@ public class ClimateTrayProxySettings implements Persistent
             builder.setRoutePlanner(routePlanner);
         }
 
-        return builder.build();
+        return builder;
     }
 
     @Override
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Coalesces refresh requests. All requests, that arrive until the refresh has been executed on the event dispatch
+ * thread, result in one single refresh. The refreshes are limited to a maximum rate.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayRefreshCoalescer
+{
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable refresh;
+    private final long minPeriodNanos;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+
+    private volatile long lastRefreshNanos = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Creates the coalescer.
+     *
+     * @param scheduler the scheduler, used to delay refreshes, that would exceed the maximum rate
+     * @param maxRefreshesPerSecond the maximum number of refreshes per second
+     * @param refresh the refresh, will be called on the event dispatch thread
+     */
+    public ClimateTrayRefreshCoalescer(ScheduledExecutorService scheduler, int maxRefreshesPerSecond, Runnable refresh)
+    {
+        super();
+
+        this.scheduler = scheduler;
+        this.refresh = refresh;
+
+        minPeriodNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(maxRefreshesPerSecond, 1);
+    }
+
+    /**
+     * Requests a refresh. Does nothing, if a refresh is already pending.
+     */
+    public void requestRefresh()
+    {
+        requestCount.incrementAndGet();
+
+        if (!pending.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        long delayNanos = (lastRefreshNanos + minPeriodNanos) - System.nanoTime();
+
+        if (delayNanos <= 0)
+        {
+            SwingUtilities.invokeLater(this::execute);
+
+            return;
+        }
+
+        try
+        {
+            scheduler.schedule(() -> SwingUtilities.invokeLater(this::execute), delayNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            // shutting down, no need to refresh anymore
+            pending.set(false);
+        }
+    }
+
+    protected void execute()
+    {
+        // requests, that arrive while refreshing, need another refresh
+        pending.set(false);
+
+        lastRefreshNanos = System.nanoTime();
+        refreshCount.incrementAndGet();
+
+        refresh.run();
+    }
+
+    public long getRequestCount()
+    {
+        return requestCount.get();
+    }
+
+    public long getRefreshCount()
+    {
+        return refreshCount.get();
+    }
+
+    public String describeStatistics()
+    {
+        return String.format("[requests=%d, refreshes=%d]", requestCount.get(), refreshCount.get());
+    }
+
+}
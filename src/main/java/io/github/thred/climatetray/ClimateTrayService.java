@@ -20,6 +20,7 @@ import java.awt.Desktop;
 import java.awt.SystemTray;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -28,8 +29,8 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import javax.swing.JButton;
 import javax.swing.JComponent;
@@ -37,9 +38,13 @@ import javax.swing.SwingUtilities;
 
 import io.github.thred.climatetray.mnet.MNetAdjust;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetMetrics;
+import io.github.thred.climatetray.mnet.MNetPollEngine;
 import io.github.thred.climatetray.mnet.MNetPreset;
+import io.github.thred.climatetray.mnet.MNetPresetMatcher;
 import io.github.thred.climatetray.mnet.MNetService;
-import io.github.thred.climatetray.mnet.MNetState;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
+import io.github.thred.climatetray.mnet.MNetUtils;
 import io.github.thred.climatetray.ui.AbstractClimateTrayWindowController.Button;
 import io.github.thred.climatetray.ui.ClimateTrayAboutDialogController;
 import io.github.thred.climatetray.ui.ClimateTrayAdjustDialogController;
@@ -52,6 +57,7 @@ import io.github.thred.climatetray.ui.ClimateTrayProxyDialogController;
 import io.github.thred.climatetray.ui.ClimateTrayWindowController;
 import io.github.thred.climatetray.util.BuildInfo;
 import io.github.thred.climatetray.util.ExceptionConsumer;
+import io.github.thred.climatetray.util.Severity;
 import io.github.thred.climatetray.util.VoidCallable;
 import io.github.thred.climatetray.util.message.Message;
 import io.github.thred.climatetray.util.prefs.SystemPrefs;
@@ -62,7 +68,17 @@ public class ClimateTrayService
 {
 
     private static final SystemPrefs PREFS = SystemPrefs.get(ClimateTray.class);
-    private static final ScheduledExecutorService EXECUTOR;
+    private static final int POLL_THREADS = Integer.getInteger("pollThreads", 32);
+    private static final int UPDATE_TICK_IN_SECONDS = 1;
+    private static final int STATISTICS_PERIOD_IN_SECONDS = Integer.getInteger("statisticsPeriod", 60);
+    private static final int MAX_REFRESHES_PER_SECOND = Integer.getInteger("refreshRate", 4);
+    private static final AtomicBoolean UPDATE_PRESETS_PENDING = new AtomicBoolean(true);
+
+    private static final ScheduledExecutorService SCHEDULER;
+    private static final ClimateTrayTaskExecutor EXECUTOR;
+    private static final ClimateTrayRefreshCoalescer REFRESH_COALESCER;
+    private static final MNetPollEngine POLL_ENGINE;
+    private static final MNetPresetMatcher PRESET_MATCHER = new MNetPresetMatcher();
     private static final ClimateTrayController<ClimateTrayPreferences, ?> MAIN_CONTROLLER;
     private static final ClimateTrayAdjustDialogController ADJUST_CONTROLLER;
     private static final ClimateTrayAboutDialogController ABOUT_CONTROLLER;
@@ -71,14 +87,18 @@ public class ClimateTrayService
 
     static
     {
-        EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
-            Thread thread = new Thread(r, "Climate Tray Executor Thread");
+        SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Climate Tray Scheduler Thread");
 
             thread.setUncaughtExceptionHandler((t, e) -> LOG.error("Unhandled exception", e));
 
             return thread;
         });
 
+        EXECUTOR = new ClimateTrayTaskExecutor();
+
+        POLL_ENGINE = new MNetPollEngine(POLL_THREADS, PREFERENCES.getMaxRequestsPerController());
+
         if (!SystemTray.isSupported() || System.getProperties().containsKey("window"))
         {
             MAIN_CONTROLLER = new ClimateTrayWindowController();
@@ -93,9 +113,25 @@ public class ClimateTrayService
         ABOUT_CONTROLLER = new ClimateTrayAboutDialogController(null);
         LOG_CONTROLLER = new ClimateTrayLogFrameController(null);
         PREFERENCES_CONTROLLER = new ClimateTrayPreferencesDialogController(null);
+
+        REFRESH_COALESCER = new ClimateTrayRefreshCoalescer(SCHEDULER, MAX_REFRESHES_PER_SECOND,
+            () -> MAIN_CONTROLLER.refreshWith(PREFERENCES));
+
+        MNetService.addStateListener(PRESET_MATCHER);
+        MNetService.addStateListener(ClimateTrayService::stateChanged);
     }
 
     private volatile static ScheduledFuture<?> updateFuture;
+    private volatile static Future<?> pollFuture;
+
+    /**
+     * Loads all images in the background.
+     */
+    public static void preload()
+    {
+        submitTask(ClimateTrayTaskLane.PRELOAD, ClimateTrayCache::preload, null,
+            e -> LOG.warn("Failed to preload images", e));
+    }
 
     public static void prepare()
     {
@@ -127,62 +163,163 @@ public class ClimateTrayService
 
     public static void scheduleUpdate()
     {
-        int updatePeriodInSeconds = Math.max(PREFERENCES.getUpdatePeriodInSeconds(), 30);
-
         if (updateFuture != null)
         {
             LOG.debug("Canceling existing update process.");
 
             updateFuture.cancel(false);
-        }
 
-        LOG.info("Scheduling update every %d seconds.", updatePeriodInSeconds);
+            Future<?> stalePollFuture = pollFuture;
 
-        updateFuture = EXECUTOR.scheduleWithFixedDelay(() -> {
-            try
+            if (stalePollFuture != null)
             {
-                update();
+                // drops the poll, if it is still queued
+                stalePollFuture.cancel(false);
             }
-            catch (Exception e)
+
+            POLL_ENGINE.cancel();
+        }
+
+        LOG
+            .info("Scheduling updates every %d to %d seconds, depending on the changes of the air conditioners.",
+                Math.max(PREFERENCES.getMinUpdatePeriodInSeconds(), 1),
+                Math.max(PREFERENCES.getMaxUpdatePeriodInSeconds(), PREFERENCES.getMinUpdatePeriodInSeconds()));
+
+        UPDATE_PRESETS_PENDING.set(true);
+
+        updateFuture = SCHEDULER.scheduleWithFixedDelay(() -> {
+            Future<?> currentPollFuture = pollFuture;
+
+            if ((currentPollFuture == null) || (currentPollFuture.isDone()))
             {
-                LOG.error("Unhandled error while update", e);
+                pollFuture = submitTask(ClimateTrayTaskLane.POLL, ClimateTrayService::updateDevices, null,
+                    e -> LOG.error("Unhandled error while update", e));
             }
-        }, 0, updatePeriodInSeconds, TimeUnit.SECONDS);
+        }, 0, UPDATE_TICK_IN_SECONDS, TimeUnit.SECONDS);
     }
 
+    /**
+     * Updates the state of all devices with the next tick of the update process.
+     */
     public static void update()
     {
         LOG.debug("Updating.");
 
-        updateDevices();
+        PREFERENCES.getDevices().forEach(device -> device.setNextPollMillis(0));
     }
 
+    /**
+     * Creates a coalescer for refreshes of some part of the user interface, that uses the scheduler of the service.
+     *
+     * @param maxRefreshesPerSecond the maximum number of refreshes per second
+     * @param refresh the refresh, will be called on the event dispatch thread
+     * @return the coalescer
+     */
+    public static ClimateTrayRefreshCoalescer createRefreshCoalescer(int maxRefreshesPerSecond, Runnable refresh)
+    {
+        return new ClimateTrayRefreshCoalescer(SCHEDULER, maxRefreshesPerSecond, refresh);
+    }
+
+    /**
+     * Creates a coalescer for the state changes of the air conditioners, that uses the scheduler of the service.
+     * Register it with {@link MNetService#addStateListener(io.github.thred.climatetray.mnet.MNetStateListener)}.
+     *
+     * @param refresh the refresh of the changed devices, will be called on the event dispatch thread
+     * @return the coalescer
+     */
+    public static ClimateTrayStateChangeCoalescer createStateChangeCoalescer(
+        Consumer<Collection<MNetStateEvent>> refresh)
+    {
+        return new ClimateTrayStateChangeCoalescer(SCHEDULER, MAX_REFRESHES_PER_SECOND, refresh);
+    }
+
+    /**
+     * Refreshes the user interface. Multiple calls in a short time result in one refresh.
+     */
     public static void refresh()
     {
-        SwingUtilities.invokeLater(() -> MAIN_CONTROLLER.refreshWith(PREFERENCES));
+        REFRESH_COALESCER.requestRefresh();
     }
 
+    /**
+     * Updates the state of all devices, that are due.
+     */
     public static void updateDevices()
     {
         List<MNetDevice> devices = PREFERENCES.getDevices();
 
-        devices.stream().forEach(device -> {
-            MNetService.updateDevice(device);
-            updatePresets();
-        });
+        POLL_ENGINE.setMaxRequestsPerController(PREFERENCES.getMaxRequestsPerController());
+        POLL_ENGINE
+            .setIntervals(PREFERENCES.getMinUpdatePeriodInSeconds(),
+                Math.max(PREFERENCES.getUpdatePeriodInSeconds(), 30), PREFERENCES.getMaxUpdatePeriodInSeconds());
+
+        List<MNetDevice> polledDevices;
+
+        try
+        {
+            polledDevices = POLL_ENGINE.pollDue(devices);
+        }
+        catch (InterruptedException e)
+        {
+            LOG.debug("Update got interrupted.");
+
+            Thread.currentThread().interrupt();
+
+            return;
+        }
+
+        // the controllers refresh the changed devices on their own, a full refresh is only needed, if the selection of
+        // the presets changed
+        if ((UPDATE_PRESETS_PENDING.getAndSet(false))
+            && (PRESET_MATCHER.update(PREFERENCES.getPresets(), PREFERENCES.getDevices())))
+        {
+            refresh();
+        }
     }
 
-    public static void updatePresets()
+    /**
+     * Logs the statistics of the pools, caches and requests as one message.
+     *
+     * @param severity the severity of the message
+     */
+    public static void logStatistics(Severity severity)
     {
-        List<MNetDevice> devices = PREFERENCES.getDevices();
-        List<MNetPreset> presets = PREFERENCES.getPresets();
-        List<MNetState> states = devices
-            .stream()
-            .filter(device -> device.isEnabled() && device.isSelectedAndWorking())
-            .map(device -> device.getState())
-            .collect(Collectors.toList());
+        if (!LOG.isEnabled(severity))
+        {
+            return;
+        }
+
+        LOG
+            .add(severity,
+                "Statistics:\n\tConnection pools: %s\n\tTask lanes: %s\n\tRefreshes: %s\n\tIcons: %s\n\tImages: %s\n"
+                    + "\tRequests: %s\n\tCommands: %s\n\tLog: console %s, file %s",
+                ClimateTrayHttpClientPool.describeStatistics(), EXECUTOR.describeStatistics(),
+                REFRESH_COALESCER.describeStatistics(), MNetUtils.describeIconCacheStatistics(),
+                ClimateTrayCache.describeStatistics(), MNetMetrics.describe(), MNetMetrics.describeCommands(),
+                CONSOLE_LOG.describeStatistics(), FILE_LOG.describeStatistics());
+    }
+
+    /**
+     * Collects the changes of the states. The presets get updated only if settings changed or a device started or
+     * stopped working. The controllers subscribe to the changes themselves (see
+     * {@link #createStateChangeCoalescer(Consumer)}) and refresh only the affected devices.
+     *
+     * @param event the event
+     */
+    protected static void stateChanged(MNetStateEvent event)
+    {
+        boolean wasWorking = event.getPreviousState().getFails() == 0;
+        boolean working = event.getState().getFails() == 0;
+
+        if ((event.isSettingChanged()) || (wasWorking != working))
+        {
+            UPDATE_PRESETS_PENDING.set(true);
+        }
+    }
 
-        presets.stream().forEach(preset -> preset.setSelected(MNetService.isMatching(preset, states)));
+    public static void updatePresets()
+    {
+        PRESET_MATCHER.update(PREFERENCES.getPresets(), PREFERENCES.getDevices());
 
         refresh();
     }
@@ -199,7 +336,13 @@ public class ClimateTrayService
 
     public static Future<?> submitTask(VoidCallable task, VoidCallable onSuccess, ExceptionConsumer onError)
     {
-        return EXECUTOR.submit(() -> {
+        return submitTask(ClimateTrayTaskLane.INTERACTIVE, task, onSuccess, onError);
+    }
+
+    public static Future<?> submitTask(ClimateTrayTaskLane lane, VoidCallable task, VoidCallable onSuccess,
+        ExceptionConsumer onError)
+    {
+        return EXECUTOR.submit(lane, () -> {
             try
             {
                 task.call();
@@ -237,7 +380,13 @@ public class ClimateTrayService
     public static <RESULT_TYPE> Future<RESULT_TYPE> submitTask(Callable<RESULT_TYPE> task,
         Consumer<RESULT_TYPE> onSuccess, ExceptionConsumer onError)
     {
-        return EXECUTOR.submit(() -> {
+        return submitTask(ClimateTrayTaskLane.INTERACTIVE, task, onSuccess, onError);
+    }
+
+    public static <RESULT_TYPE> Future<RESULT_TYPE> submitTask(ClimateTrayTaskLane lane, Callable<RESULT_TYPE> task,
+        Consumer<RESULT_TYPE> onSuccess, ExceptionConsumer onError)
+    {
+        return EXECUTOR.submit(lane, () -> {
             try
             {
                 RESULT_TYPE result = task.call();
@@ -269,6 +418,7 @@ public class ClimateTrayService
     {
         LOG.info("Shutting down processor.");
 
+        SCHEDULER.shutdown();
         EXECUTOR.shutdown();
 
         try
@@ -279,6 +429,15 @@ public class ClimateTrayService
         {
             LOG.warn("Shutdown of processor got interrupted");
         }
+
+        POLL_ENGINE.shutdown();
+        ClimateTrayHttpClientPool.shutdown();
+        ClimateTrayMetricsServer.stop();
+
+        logStatistics(Severity.DEBUG);
+
+        CONSOLE_LOG.close(1000);
+        FILE_LOG.close(1000);
     }
 
     public static void togglePreset(UUID presetId)
@@ -297,11 +456,11 @@ public class ClimateTrayService
     {
         LOG.debug("Toggling preset with id %s for all selected devices.", preset.getId());
 
-        submitTask(() -> PREFERENCES
+        submitTask(ClimateTrayTaskLane.OPERATE, () -> PREFERENCES
             .getDevices()
             .stream()
             .filter(device -> device.isEnabled() && device.isSelected())
-            .forEach(device -> MNetService.adjustDevice(device, preset)), ClimateTrayService::updatePresets);
+            .forEach(device -> MNetService.adjustDevice(device, preset)), ClimateTrayService::updatePresets, null);
     }
 
     protected static void togglePreset(MNetDevice device, MNetPreset preset)
@@ -315,7 +474,8 @@ public class ClimateTrayService
             return;
         }
 
-        submitTask(() -> MNetService.adjustDevice(device, preset), ClimateTrayService::updatePresets);
+        submitTask(ClimateTrayTaskLane.OPERATE, () -> MNetService.adjustDevice(device, preset),
+            ClimateTrayService::updatePresets, null);
     }
 
     public static void toggleDevice(UUID id)
@@ -581,12 +741,21 @@ public class ClimateTrayService
             return;
         }
 
-        submitTask(ClimateTrayUtils::performBuildInfoRequest, onSuccess);
+        submitTask(ClimateTrayTaskLane.POLL, ClimateTrayUtils::performBuildInfoRequest, onSuccess, null);
     }
 
     public static void start()
     {
         MAIN_CONTROLLER.getView();
+
+        ClimateTrayMetricsServer.start();
+
+        if (STATISTICS_PERIOD_IN_SECONDS > 0)
+        {
+            SCHEDULER
+                .scheduleWithFixedDelay(() -> logStatistics(Severity.DEBUG), STATISTICS_PERIOD_IN_SECONDS,
+                    STATISTICS_PERIOD_IN_SECONDS, TimeUnit.SECONDS);
+        }
     }
 
     public static void exit()
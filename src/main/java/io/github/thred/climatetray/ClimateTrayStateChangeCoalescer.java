@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetState;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
+import io.github.thred.climatetray.mnet.MNetStateField;
+import io.github.thred.climatetray.mnet.MNetStateListener;
+
+/**
+ * Collects the state changes of the air conditioners and passes them to the event dispatch thread, coalesced like the
+ * refreshes of the {@link ClimateTrayRefreshCoalescer}. Multiple changes of one device get merged into one event with
+ * the fields, that differ between the first and the last state. Register it as {@link MNetStateListener}.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayStateChangeCoalescer implements MNetStateListener
+{
+
+    private final Map<UUID, MNetStateEvent> events = new LinkedHashMap<>();
+    private final Consumer<Collection<MNetStateEvent>> refresh;
+    private final ClimateTrayRefreshCoalescer refreshCoalescer;
+
+    /**
+     * Creates the coalescer.
+     *
+     * @param scheduler the scheduler, used to delay refreshes, that would exceed the maximum rate
+     * @param maxRefreshesPerSecond the maximum number of refreshes per second
+     * @param refresh the refresh, will be called on the event dispatch thread with the changes of the devices
+     */
+    public ClimateTrayStateChangeCoalescer(ScheduledExecutorService scheduler, int maxRefreshesPerSecond,
+        Consumer<Collection<MNetStateEvent>> refresh)
+    {
+        super();
+
+        this.refresh = refresh;
+
+        refreshCoalescer = new ClimateTrayRefreshCoalescer(scheduler, maxRefreshesPerSecond, this::execute);
+    }
+
+    @Override
+    public void stateChanged(MNetStateEvent event)
+    {
+        MNetDevice device = event.getDevice();
+
+        synchronized (events)
+        {
+            MNetStateEvent pendingEvent = events.remove(device.getId());
+
+            if (pendingEvent != null)
+            {
+                MNetState previousState = pendingEvent.getPreviousState();
+                Set<MNetStateField> fields = MNetStateField.diff(previousState, event.getState());
+
+                if (fields.isEmpty())
+                {
+                    // changed back, nothing to refresh
+                    return;
+                }
+
+                event = new MNetStateEvent(device, previousState, event.getState(), fields);
+            }
+
+            events.put(device.getId(), event);
+        }
+
+        refreshCoalescer.requestRefresh();
+    }
+
+    protected void execute()
+    {
+        List<MNetStateEvent> currentEvents;
+
+        synchronized (events)
+        {
+            if (events.isEmpty())
+            {
+                return;
+            }
+
+            currentEvents = new ArrayList<>(events.values());
+
+            events.clear();
+        }
+
+        refresh.accept(currentEvents);
+    }
+
+}
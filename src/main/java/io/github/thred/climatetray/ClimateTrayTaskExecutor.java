@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Executes tasks in lanes (see {@link ClimateTrayTaskLane}). Keeps statistics about the time, the tasks had to wait in
+ * the queue of each lane.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayTaskExecutor
+{
+
+    private static class Task<RESULT_TYPE> extends FutureTask<RESULT_TYPE> implements Comparable<Task<?>>
+    {
+        private final ClimateTrayTaskLane lane;
+        private final long sequence;
+
+        Task(ClimateTrayTaskLane lane, long sequence, Callable<RESULT_TYPE> callable)
+        {
+            super(callable);
+
+            this.lane = lane;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Task<?> other)
+        {
+            int result = lane.compareTo(other.lane);
+
+            return (result != 0) ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static class LaneStatistics
+    {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+
+        void record(long waitNanos)
+        {
+            count.incrementAndGet();
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+        }
+
+        @Override
+        public String toString()
+        {
+            long currentCount = count.get();
+
+            return String
+                .format("[tasks=%d, averageWait=%d ms, maxWait=%d ms]", currentCount,
+                    (currentCount > 0) ? TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / currentCount) : 0,
+                    TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        }
+    }
+
+    private final ThreadPoolExecutor foregroundExecutor;
+    private final ThreadPoolExecutor backgroundExecutor;
+    private final ThreadPoolExecutor idleExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<ClimateTrayTaskLane, LaneStatistics> statistics = new EnumMap<>(ClimateTrayTaskLane.class);
+
+    public ClimateTrayTaskExecutor()
+    {
+        super();
+
+        foregroundExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(),
+            r -> createThread(r, "Climate Tray Executor Thread"));
+        backgroundExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            r -> createThread(r, "Climate Tray Background Thread"));
+        idleExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = createThread(r, "Climate Tray Idle Thread");
+
+            thread.setPriority(Thread.MIN_PRIORITY);
+
+            return thread;
+        });
+
+        for (ClimateTrayTaskLane lane : ClimateTrayTaskLane.values())
+        {
+            statistics.put(lane, new LaneStatistics());
+        }
+    }
+
+    private static Thread createThread(Runnable runnable, String name)
+    {
+        Thread thread = new Thread(runnable, name);
+
+        thread.setUncaughtExceptionHandler((t, e) -> LOG.error("Unhandled exception", e));
+
+        return thread;
+    }
+
+    /**
+     * Submits the task to the lane. A task, that gets canceled while waiting in the queue, will never be executed.
+     *
+     * @param <RESULT_TYPE> the type of the result
+     * @param lane the lane
+     * @param callable the task
+     * @return the future of the task
+     */
+    public <RESULT_TYPE> Future<RESULT_TYPE> submit(ClimateTrayTaskLane lane, Callable<RESULT_TYPE> callable)
+    {
+        long submitNanos = System.nanoTime();
+        LaneStatistics laneStatistics = statistics.get(lane);
+        Task<RESULT_TYPE> task = new Task<>(lane, sequence.incrementAndGet(), () -> {
+            laneStatistics.record(System.nanoTime() - submitNanos);
+
+            return callable.call();
+        });
+
+        if (lane.isIdle())
+        {
+            idleExecutor.execute(task);
+        }
+        else if (lane.isBackground())
+        {
+            backgroundExecutor.execute(task);
+        }
+        else
+        {
+            foregroundExecutor.execute(task);
+        }
+
+        return task;
+    }
+
+    /**
+     * Describes the queue wait times of all lanes.
+     *
+     * @return the description
+     */
+    public String describeStatistics()
+    {
+        return statistics
+            .entrySet()
+            .stream()
+            .map(entry -> entry.getKey() + " " + entry.getValue())
+            .collect(Collectors.joining(", "));
+    }
+
+    public void shutdown()
+    {
+        foregroundExecutor.shutdown();
+        backgroundExecutor.shutdown();
+        idleExecutor.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+
+        return (foregroundExecutor.awaitTermination(timeout, unit))
+            && (backgroundExecutor.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS))
+            && (idleExecutor.awaitTermination(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS));
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray;
+
+/**
+ * The lanes of the {@link ClimateTrayTaskExecutor}. The foreground lanes share one thread, where tasks of the
+ * interactive lane run before queued tasks of the operate lane. The poll lane runs on its own thread, thus user
+ * actions never wait for a poll. The preload lane runs on an idle thread, thus it never delays the first poll.
+ *
+ * @author Manfred Hantschel
+ */
+public enum ClimateTrayTaskLane
+{
+
+    /**
+     * Tasks, the user is waiting for, like the steps of a test.
+     */
+    INTERACTIVE(false, false),
+
+    /**
+     * Operations on air conditioners, like toggling a preset.
+     */
+    OPERATE(false, false),
+
+    /**
+     * Background tasks, like polling the air conditioners.
+     */
+    POLL(true, false),
+
+    /**
+     * Tasks, that warm up caches, like preloading images.
+     */
+    PRELOAD(true, true);
+
+    private final boolean background;
+    private final boolean idle;
+
+    ClimateTrayTaskLane(boolean background, boolean idle)
+    {
+        this.background = background;
+        this.idle = idle;
+    }
+
+    public boolean isBackground()
+    {
+        return background;
+    }
+
+    public boolean isIdle()
+    {
+        return idle;
+    }
+
+}
@@ -40,9 +40,9 @@ public class ClimateTrayUtils
 
     public static BuildInfo performBuildInfoRequest()
     {
-        try
+        try (ClimateTrayHttpClientPool.Lease lease = ClimateTrayHttpClientPool.lease())
         {
-            CloseableHttpClient client = ClimateTray.PREFERENCES.getProxySettings().createHttpClient();
+            CloseableHttpClient client = lease.getClient();
             HttpGet request = new HttpGet(BUILD_INFO_URL);
             CloseableHttpResponse response;
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A circuit breaker for one centralized controller. After some consecutive failures, the circuit opens and the
+ * controller will not be contacted until the backoff elapsed. Then one request is allowed to probe the controller
+ * (half-open). If it succeeds, the circuit closes, otherwise it opens again with a doubled backoff.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetCircuitBreaker
+{
+
+    public enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public static final int FAILURE_THRESHOLD = 3;
+
+    private static final long INITIAL_BACKOFF_MILLIS = 30 * 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30 * 60 * 1000;
+    private static final double JITTER = 0.2;
+
+    private final String key;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long backoffMillis = 0;
+    private long retryMillis = 0;
+    private long probeMillis = 0;
+    private int transitionCount = 0;
+
+    public MNetCircuitBreaker(String key)
+    {
+        super();
+
+        this.key = key;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    public synchronized boolean isOpen()
+    {
+        return state == State.OPEN;
+    }
+
+    public synchronized int getConsecutiveFailures()
+    {
+        return consecutiveFailures;
+    }
+
+    public synchronized int getTransitionCount()
+    {
+        return transitionCount;
+    }
+
+    /**
+     * Returns the time, when the next request will be allowed, if the circuit is open.
+     *
+     * @return the time in milliseconds
+     */
+    public synchronized long getRetryMillis()
+    {
+        return retryMillis;
+    }
+
+    /**
+     * Checks, if a request to the controller is allowed. If the backoff of an open circuit elapsed, the circuit gets
+     * half-open and one caller is allowed to probe the controller.
+     *
+     * @return true if the request is allowed
+     */
+    public synchronized boolean allowRequest()
+    {
+        switch (state)
+        {
+            case CLOSED:
+                return true;
+
+            case OPEN:
+                if (System.currentTimeMillis() < retryMillis)
+                {
+                    return false;
+                }
+
+                probeMillis = System.currentTimeMillis();
+
+                transition(State.HALF_OPEN);
+
+                return true;
+
+            default:
+                // the probe may never report back (e.g. no request was necessary), allow another one after a while
+                if (System.currentTimeMillis() - probeMillis < INITIAL_BACKOFF_MILLIS)
+                {
+                    return false;
+                }
+
+                probeMillis = System.currentTimeMillis();
+
+                return true;
+        }
+    }
+
+    /**
+     * Records a successful request. Closes the circuit.
+     */
+    public synchronized void recordSuccess()
+    {
+        consecutiveFailures = 0;
+        backoffMillis = 0;
+
+        if (state != State.CLOSED)
+        {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failed request. Opens the circuit, if the threshold has been reached or the probe failed.
+     */
+    public synchronized void recordFailure()
+    {
+        consecutiveFailures += 1;
+
+        if ((state == State.HALF_OPEN) || ((state == State.CLOSED) && (consecutiveFailures >= FAILURE_THRESHOLD)))
+        {
+            backoffMillis = (backoffMillis <= 0) ? INITIAL_BACKOFF_MILLIS
+                : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+
+            double jitter = 1 + (ThreadLocalRandom.current().nextDouble(-JITTER, JITTER));
+
+            retryMillis = System.currentTimeMillis() + Math.round(backoffMillis * jitter);
+
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Returns a short description for the user, null if the circuit is closed.
+     *
+     * @return the description or null
+     */
+    public synchronized String describe()
+    {
+        switch (state)
+        {
+            case OPEN:
+                return String
+                    .format("unreachable, retry in %d s",
+                        Math.max(0, (retryMillis - System.currentTimeMillis() + 999) / 1000));
+
+            case HALF_OPEN:
+                return "unreachable, retrying";
+
+            default:
+                return null;
+        }
+    }
+
+    private void transition(State newState)
+    {
+        State oldState = state;
+
+        state = newState;
+        transitionCount += 1;
+
+        if (newState == State.OPEN)
+        {
+            LOG
+                .warn(
+                    "Circuit of centralized controller \"%s\" changed from %s to %s after %d failure(s), "
+                        + "retry in %d seconds (%d transitions).",
+                    key, oldState, newState, consecutiveFailures,
+                    (retryMillis - System.currentTimeMillis()) / 1000, transitionCount);
+        }
+        else
+        {
+            LOG
+                .info("Circuit of centralized controller \"%s\" changed from %s to %s (%d transitions).", key,
+                    oldState, newState, transitionCount);
+        }
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String
+            .format("%s [state=%s, consecutiveFailures=%d, transitionCount=%d]", key, state, consecutiveFailures,
+                transitionCount);
+    }
+
+}
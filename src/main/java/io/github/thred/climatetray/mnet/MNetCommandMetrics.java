@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of one command (getRequest, setRequest) sent to one centralized controller: the outcomes and the
+ * durations of the phases of the requests.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetCommandMetrics
+{
+
+    public enum Phase
+    {
+        /**
+         * From the start until the connection is ready, includes the lease from the pool.
+         */
+        CONNECT,
+
+        /**
+         * Sending the request.
+         */
+        SEND,
+
+        /**
+         * Waiting for the head of the response.
+         */
+        WAIT,
+
+        /**
+         * Reading and parsing the body of the response.
+         */
+        PARSE
+    }
+
+    public enum Outcome
+    {
+        SUCCESS,
+        HTTP_ERROR,
+        ERROR_RESPONSE,
+        PARSE_FAILURE,
+        TRANSPORT_FAILURE,
+        TIMEOUT,
+        CANCELED
+    }
+
+    private final String host;
+    private final String command;
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+    private final Map<Phase, MNetLatencyHistogram> phases = new EnumMap<>(Phase.class);
+
+    public MNetCommandMetrics(String host, String command)
+    {
+        super();
+
+        this.host = host;
+        this.command = command;
+
+        for (Outcome outcome : Outcome.values())
+        {
+            outcomes.put(outcome, new LongAdder());
+        }
+
+        for (Phase phase : Phase.values())
+        {
+            phases.put(phase, new MNetLatencyHistogram());
+        }
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    public String getCommand()
+    {
+        return command;
+    }
+
+    public void recordOutcome(Outcome outcome)
+    {
+        outcomes.get(outcome).increment();
+    }
+
+    public void recordPhase(Phase phase, long durationInNanos)
+    {
+        phases.get(phase).record(durationInNanos);
+    }
+
+    public long getCount(Outcome outcome)
+    {
+        return outcomes.get(outcome).sum();
+    }
+
+    public MNetLatencyHistogram getHistogram(Phase phase)
+    {
+        return phases.get(phase);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String
+            .format("%s %s [success=%d, failure=%d, connect=%.1f ms, send=%.1f ms, wait=%.1f ms, parse=%.1f ms]", host,
+                command, getCount(Outcome.SUCCESS),
+                outcomes.values().stream().mapToLong(LongAdder::sum).sum() - getCount(Outcome.SUCCESS),
+                getHistogram(Phase.CONNECT).getMeanInMillis(), getHistogram(Phase.SEND).getMeanInMillis(),
+                getHistogram(Phase.WAIT).getMeanInMillis(), getHistogram(Phase.PARSE).getMeanInMillis());
+    }
+
+}
@@ -18,6 +18,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.github.thred.climatetray.util.Copyable;
 import io.github.thred.climatetray.util.Persistent;
@@ -37,11 +39,15 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
     private boolean selected = true;
     private boolean enabled = true;
 
-    private MNetState state = new MNetState();
+    private final AtomicReference<MNetState> state = new AtomicReference<>(new MNetState());
     private MNetPreset preset = new MNetPreset();
 
     private String model = null;
 
+    private volatile int pollIntervalInSeconds = 0;
+    private volatile long nextPollMillis = 0;
+    private final AtomicBoolean pollExpedited = new AtomicBoolean(false);
+
     public MNetDevice()
     {
         super();
@@ -61,7 +67,7 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
         this.group = group;
         this.selected = selected;
         this.enabled = enabled;
-        this.state = state;
+        this.state.set(state);
         this.preset = preset;
         this.model = model;
     }
@@ -70,7 +76,7 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
     public MNetDevice deepCopy()
     {
         return new MNetDevice(id, name, installation, host, ec, address, group, selected, enabled,
-            Copyable.deepCopy(state), Copyable.deepCopy(preset), model);
+            getState(), Copyable.deepCopy(preset), model);
     }
 
     public UUID getId()
@@ -168,7 +174,9 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
 
     public boolean isWorking()
     {
-        return getState() != null && getState().getFails() == 0;
+        MNetState currentState = getState();
+
+        return currentState != null && currentState.getFails() == 0;
     }
 
     public boolean isSelected()
@@ -191,14 +199,31 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
         this.enabled = enabled;
     }
 
+    /**
+     * Returns the current state. The state is immutable, all values of the state belong to the same response.
+     *
+     * @return the state
+     */
     public MNetState getState()
     {
-        return state;
+        return state.get();
     }
 
     public void setState(MNetState state)
     {
-        this.state = state;
+        this.state.set(state);
+    }
+
+    /**
+     * Replaces the state, if it has not been replaced by another thread in the meantime.
+     *
+     * @param expectedState the expected, current state
+     * @param state the new state
+     * @return true if replaced
+     */
+    public boolean compareAndSetState(MNetState expectedState, MNetState state)
+    {
+        return this.state.compareAndSet(expectedState, state);
     }
 
     // currently not needed - later use: stores the defined preset, allows to detect changes by other apps
@@ -225,14 +250,64 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
         this.model = model;
     }
 
+    /**
+     * Returns the effective interval between two polls of the device. The interval adapts to the observed changes of
+     * the state.
+     *
+     * @return the interval in seconds, 0 if the device has not been polled yet
+     */
+    public int getPollIntervalInSeconds()
+    {
+        return pollIntervalInSeconds;
+    }
+
+    public void setPollIntervalInSeconds(int pollIntervalInSeconds)
+    {
+        this.pollIntervalInSeconds = pollIntervalInSeconds;
+    }
+
+    public long getNextPollMillis()
+    {
+        return nextPollMillis;
+    }
+
+    public void setNextPollMillis(long nextPollMillis)
+    {
+        this.nextPollMillis = nextPollMillis;
+    }
+
+    public boolean isPollExpedited()
+    {
+        return pollExpedited.get();
+    }
+
+    /**
+     * Resets the expedite of the poll.
+     *
+     * @return true if the poll has been expedited
+     */
+    public boolean consumePollExpedited()
+    {
+        return pollExpedited.getAndSet(false);
+    }
+
+    /**
+     * Polls the device with the next update and continues with the minimal interval.
+     */
+    public void expeditePoll()
+    {
+        pollExpedited.set(true);
+        nextPollMillis = 0;
+    }
+
     public String describeState()
     {
-        return Utils.combine(": ", name, state.describe());
+        return Utils.combine(": ", name, getState().describe());
     }
 
     public String describeStateAction()
     {
-        return Utils.combine(": ", name, state.describeAction());
+        return Utils.combine(": ", name, getState().describeAction());
     }
 
     public String describeSettings()
@@ -277,7 +352,7 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
         group = null;
         selected = prefs.getBoolean("selected", selected);
         enabled = prefs.getBoolean("enabled", enabled);
-        state = new MNetState();
+        state.set(new MNetState());
 
         if (preset == null)
         {
@@ -324,11 +399,13 @@ public class MNetDevice implements Copyable<MNetDevice>, Persistent
             + ", enabled="
             + enabled
             + ", state="
-            + state
+            + getState()
             + ", preset="
             + preset
             + ", model="
             + model
+            + ", pollIntervalInSeconds="
+            + pollIntervalInSeconds
             + "]";
     }
 
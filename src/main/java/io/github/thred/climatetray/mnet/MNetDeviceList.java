@@ -19,6 +19,21 @@ public interface MNetDeviceList
         return getDevices().stream().filter(device -> device.isSelectedAndWorking()).findFirst().orElse(null);
     }
 
+    /**
+     * Returns the first enabled device, that is selected and working. Its state is shown by the tray icon, the window
+     * and the title of the popup.
+     *
+     * @return the device, null if there is none
+     */
+    default MNetDevice getActiveDevice()
+    {
+        return getDevices()
+            .stream()
+            .filter(device -> (device.isEnabled()) && (device.isSelectedAndWorking()))
+            .findFirst()
+            .orElse(null);
+    }
+
     default boolean isAnyDeviceSelected()
     {
         return getDevices().stream().filter(device -> device.isEnabled() && device.isSelected()).count() > 0;
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of the requests to one centralized controller.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetHostMetrics
+{
+
+    private final String host;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final ConcurrentMap<String, MNetCommandMetrics> commands = new ConcurrentHashMap<>();
+
+    public MNetHostMetrics(String host)
+    {
+        super();
+
+        this.host = host;
+    }
+
+    public String getHost()
+    {
+        return host;
+    }
+
+    /**
+     * Returns the metrics of the command.
+     *
+     * @param command the command, e.g. getRequest
+     * @return the metrics
+     */
+    public MNetCommandMetrics of(String command)
+    {
+        return commands.computeIfAbsent(command, key -> new MNetCommandMetrics(host, key));
+    }
+
+    /**
+     * Returns the metrics of all commands.
+     *
+     * @return the metrics by command, sorted by command
+     */
+    public Map<String, MNetCommandMetrics> getCommands()
+    {
+        return new TreeMap<>(commands);
+    }
+
+    public void recordRequest()
+    {
+        requests.increment();
+    }
+
+    public void recordFailure()
+    {
+        failures.increment();
+    }
+
+    public void recordTimeout()
+    {
+        timeouts.increment();
+    }
+
+    public void recordCancellation()
+    {
+        cancellations.increment();
+    }
+
+    public long getRequests()
+    {
+        return requests.sum();
+    }
+
+    public long getFailures()
+    {
+        return failures.sum();
+    }
+
+    public long getTimeouts()
+    {
+        return timeouts.sum();
+    }
+
+    public long getCancellations()
+    {
+        return cancellations.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String
+            .format("%s [requests=%d, failures=%d, timeouts=%d, cancellations=%d]", host, getRequests(),
+                getFailures(), getTimeouts(), getCancellations());
+    }
+
+}
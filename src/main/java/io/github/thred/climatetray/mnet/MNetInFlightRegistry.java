@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.thred.climatetray.mnet.request.MNetRequestException;
+
+/**
+ * Keeps track of the requests, that are currently in flight. A caller, that wants to fetch data, that is already being
+ * fetched, joins the pending result instead of sending another request.
+ *
+ * @author Manfred Hantschel
+ * @param <RESULT_TYPE> the type of the result
+ */
+public class MNetInFlightRegistry<RESULT_TYPE>
+{
+
+    private final ConcurrentMap<String, CompletableFuture<RESULT_TYPE>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong joinCount = new AtomicLong();
+
+    public MNetInFlightRegistry()
+    {
+        super();
+    }
+
+    /**
+     * Registers the future for the key, if there is no request in flight for the key.
+     *
+     * @param key the key
+     * @param future the future of the caller
+     * @return the future of the request already in flight, null if the caller is responsible for the request and has to
+     *         call {@link #complete(String, CompletableFuture, Object)} or
+     *         {@link #fail(String, CompletableFuture, Throwable)} in any case
+     */
+    public CompletableFuture<RESULT_TYPE> join(String key, CompletableFuture<RESULT_TYPE> future)
+    {
+        CompletableFuture<RESULT_TYPE> pending = flights.putIfAbsent(key, future);
+
+        if (pending != null)
+        {
+            joinCount.incrementAndGet();
+        }
+
+        return pending;
+    }
+
+    /**
+     * Removes the flight and completes the future. Does nothing if the future has already been completed.
+     *
+     * @param key the key
+     * @param future the future, as passed to {@link #join(String, CompletableFuture)}
+     * @param result the result
+     */
+    public void complete(String key, CompletableFuture<RESULT_TYPE> future, RESULT_TYPE result)
+    {
+        flights.remove(key, future);
+        future.complete(result);
+    }
+
+    /**
+     * Removes the flight and completes the future exceptionally. Does nothing if the future has already been
+     * completed.
+     *
+     * @param key the key
+     * @param future the future, as passed to {@link #join(String, CompletableFuture)}
+     * @param exception the exception
+     */
+    public void fail(String key, CompletableFuture<RESULT_TYPE> future, Throwable exception)
+    {
+        flights.remove(key, future);
+        future.completeExceptionally(exception);
+    }
+
+    /**
+     * Waits for the result of a pending flight.
+     *
+     * @param pending the pending future
+     * @return the result
+     * @throws MNetRequestException if the request failed or the wait got interrupted
+     */
+    public RESULT_TYPE await(CompletableFuture<RESULT_TYPE> pending) throws MNetRequestException
+    {
+        try
+        {
+            return pending.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new MNetRequestException("Interrupted while waiting for pending request.", e);
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof MNetRequestException)
+            {
+                throw (MNetRequestException) cause;
+            }
+
+            throw new MNetRequestException("Pending request failed: %s", cause, cause);
+        }
+    }
+
+    public int getNumberOfFlights()
+    {
+        return flights.size();
+    }
+
+    public long getJoinCount()
+    {
+        return joinCount.get();
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed buckets, from 1 millisecond to 30 seconds.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetLatencyHistogram
+{
+
+    private static final double[] BOUNDS_IN_SECONDS =
+        {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    private static final long[] BOUNDS_IN_NANOS = new long[BOUNDS_IN_SECONDS.length];
+
+    static
+    {
+        for (int i = 0; i < BOUNDS_IN_SECONDS.length; i += 1)
+        {
+            BOUNDS_IN_NANOS[i] = Math.round(BOUNDS_IN_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_IN_NANOS.length + 1];
+    private final LongAdder sumInNanos = new LongAdder();
+
+    public MNetLatencyHistogram()
+    {
+        super();
+
+        for (int i = 0; i < buckets.length; i += 1)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Returns the upper bounds of the buckets, without the last one (infinity).
+     *
+     * @return the upper bounds in seconds
+     */
+    public static double[] getBoundsInSeconds()
+    {
+        return BOUNDS_IN_SECONDS.clone();
+    }
+
+    public void record(long durationInNanos)
+    {
+        int index = 0;
+
+        while ((index < BOUNDS_IN_NANOS.length) && (durationInNanos > BOUNDS_IN_NANOS[index]))
+        {
+            index += 1;
+        }
+
+        buckets[index].increment();
+        sumInNanos.add(durationInNanos);
+    }
+
+    /**
+     * Returns the number of durations, that were less or equal than the bound of the bucket (cumulative).
+     *
+     * @return the counts, the last one is the total count
+     */
+    public long[] getCumulativeCounts()
+    {
+        long[] result = new long[buckets.length];
+        long count = 0;
+
+        for (int i = 0; i < buckets.length; i += 1)
+        {
+            count += buckets[i].sum();
+            result[i] = count;
+        }
+
+        return result;
+    }
+
+    public long getCount()
+    {
+        long count = 0;
+
+        for (LongAdder bucket : buckets)
+        {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    public double getSumInSeconds()
+    {
+        return sumInNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the mean duration.
+     *
+     * @return the mean in milliseconds, 0 if nothing has been recorded
+     */
+    public double getMeanInMillis()
+    {
+        long count = getCount();
+
+        return (count > 0) ? sumInNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1) : 0;
+    }
+
+}
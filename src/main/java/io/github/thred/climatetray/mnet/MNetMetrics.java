@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Collects metrics of the requests per centralized controller.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetMetrics
+{
+
+    private static final ConcurrentMap<String, MNetHostMetrics> HOSTS = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the metrics for the host.
+     *
+     * @param host the host, including the port, if specified
+     * @return the metrics
+     */
+    public static MNetHostMetrics of(String host)
+    {
+        return HOSTS.computeIfAbsent(host, MNetHostMetrics::new);
+    }
+
+    /**
+     * Returns the metrics of all hosts.
+     *
+     * @return the metrics by host, sorted by host
+     */
+    public static Map<String, MNetHostMetrics> getHosts()
+    {
+        return new TreeMap<>(HOSTS);
+    }
+
+    public static String describe()
+    {
+        return getHosts().values().stream().map(MNetHostMetrics::toString).collect(Collectors.joining(", "));
+    }
+
+    public static String describeCommands()
+    {
+        return getHosts()
+            .values()
+            .stream()
+            .flatMap(host -> host.getCommands().values().stream())
+            .map(MNetCommandMetrics::toString)
+            .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Returns the metrics of the commands in the OpenMetrics text format.
+     *
+     * @return the metrics
+     */
+    public static String toOpenMetrics()
+    {
+        Collection<MNetCommandMetrics> commands = getHosts()
+            .values()
+            .stream()
+            .flatMap(host -> host.getCommands().values().stream())
+            .collect(Collectors.toList());
+        double[] bounds = MNetLatencyHistogram.getBoundsInSeconds();
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("# TYPE climatetray_mnet_requests counter\n");
+        builder.append("# HELP climatetray_mnet_requests Requests to centralized controllers by outcome.\n");
+
+        for (MNetCommandMetrics command : commands)
+        {
+            for (MNetCommandMetrics.Outcome outcome : MNetCommandMetrics.Outcome.values())
+            {
+                builder.append("climatetray_mnet_requests_total{");
+                appendLabels(builder, command);
+                builder.append(",outcome=\"").append(outcome.name().toLowerCase(Locale.ROOT)).append("\"} ");
+                builder.append(command.getCount(outcome)).append("\n");
+            }
+        }
+
+        builder.append("# TYPE climatetray_mnet_request_phase_seconds histogram\n");
+        builder.append("# UNIT climatetray_mnet_request_phase_seconds seconds\n");
+        builder
+            .append("# HELP climatetray_mnet_request_phase_seconds ")
+            .append("Duration of the phases (connect, send, wait, parse) of requests to centralized controllers.\n");
+
+        for (MNetCommandMetrics command : commands)
+        {
+            for (MNetCommandMetrics.Phase phase : MNetCommandMetrics.Phase.values())
+            {
+                MNetLatencyHistogram histogram = command.getHistogram(phase);
+                long[] counts = histogram.getCumulativeCounts();
+
+                for (int i = 0; i < counts.length; i += 1)
+                {
+                    builder.append("climatetray_mnet_request_phase_seconds_bucket{");
+                    appendLabels(builder, command, phase);
+                    builder.append(",le=\"").append((i < bounds.length) ? String.valueOf(bounds[i]) : "+Inf");
+                    builder.append("\"} ").append(counts[i]).append("\n");
+                }
+
+                builder.append("climatetray_mnet_request_phase_seconds_count{");
+                appendLabels(builder, command, phase);
+                builder.append("} ").append(counts[counts.length - 1]).append("\n");
+
+                builder.append("climatetray_mnet_request_phase_seconds_sum{");
+                appendLabels(builder, command, phase);
+                builder.append("} ").append(histogram.getSumInSeconds()).append("\n");
+            }
+        }
+
+        builder.append("# EOF\n");
+
+        return builder.toString();
+    }
+
+    private static void appendLabels(StringBuilder builder, MNetCommandMetrics command,
+        MNetCommandMetrics.Phase phase)
+    {
+        appendLabels(builder, command);
+
+        builder.append(",phase=\"").append(phase.name().toLowerCase(Locale.ROOT)).append("\"");
+    }
+
+    private static void appendLabels(StringBuilder builder, MNetCommandMetrics command)
+    {
+        builder.append("host=\"").append(escape(command.getHost())).append("\"");
+        builder.append(",command=\"").append(escape(command.getCommand())).append("\"");
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private MNetMetrics()
+    {
+        super();
+    }
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import static io.github.thred.climatetray.ClimateTray.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.github.thred.climatetray.ClimateTrayHttpClientPool;
+import io.github.thred.climatetray.mnet.request.MNetRequestGroup;
+
+/**
+ * Polls the state of devices. Different centralized controllers are queried in parallel on a bounded pool of worker
+ * threads, while the number of simultaneous requests to one controller is limited. The pool grows with the number of
+ * controllers, thus one slow controller does not delay the others.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetPollEngine
+{
+
+    /**
+     * The maximum number of simultaneous requests to one centralized controller, limited by the connections per host of
+     * the connection pool.
+     */
+    public static final int MAX_REQUESTS_PER_CONTROLLER = ClimateTrayHttpClientPool.MAX_CONNECTIONS_PER_ROUTE;
+
+    private static final int THREAD_KEEP_ALIVE_IN_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor;
+    private final Set<UUID> changedDevices = ConcurrentHashMap.newKeySet();
+    private final MNetStateListener stateListener = event -> {
+        if (event.isSettingChanged())
+        {
+            changedDevices.add(event.getDevice().getId());
+        }
+    };
+
+    private volatile int maxRequestsPerController;
+    private volatile int minIntervalInSeconds = 10;
+    private volatile int initialIntervalInSeconds = 60;
+    private volatile int maxIntervalInSeconds = 600;
+    private volatile MNetRequestGroup requestGroup = new MNetRequestGroup();
+
+    /**
+     * Creates the engine.
+     *
+     * @param maxNumberOfThreads the upper bound for the worker threads of all controllers
+     * @param maxRequestsPerController the number of simultaneous requests to one controller
+     */
+    public MNetPollEngine(int maxNumberOfThreads, int maxRequestsPerController)
+    {
+        super();
+
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        int numberOfThreads = Math.max(maxNumberOfThreads, 1);
+
+        executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, THREAD_KEEP_ALIVE_IN_SECONDS,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "Climate Tray Poll Thread " + threadNumber.getAndIncrement());
+
+                thread.setDaemon(true);
+                thread.setUncaughtExceptionHandler((t, e) -> LOG.error("Unhandled exception", e));
+
+                return thread;
+            });
+
+        // idle threads terminate, the pool only keeps as many threads as the last polls needed
+        executor.allowCoreThreadTimeOut(true);
+
+        setMaxRequestsPerController(maxRequestsPerController);
+
+        MNetService.addStateListener(stateListener);
+    }
+
+    public int getMaxRequestsPerController()
+    {
+        return maxRequestsPerController;
+    }
+
+    public void setMaxRequestsPerController(int maxRequestsPerController)
+    {
+        this.maxRequestsPerController = Math.min(Math.max(maxRequestsPerController, 1), MAX_REQUESTS_PER_CONTROLLER);
+    }
+
+    public int getMinIntervalInSeconds()
+    {
+        return minIntervalInSeconds;
+    }
+
+    public int getInitialIntervalInSeconds()
+    {
+        return initialIntervalInSeconds;
+    }
+
+    public int getMaxIntervalInSeconds()
+    {
+        return maxIntervalInSeconds;
+    }
+
+    /**
+     * Sets the bounds of the adaptive poll intervals.
+     *
+     * @param minIntervalInSeconds the interval after a change of the state or an operation
+     * @param initialIntervalInSeconds the interval after the first poll of a device
+     * @param maxIntervalInSeconds the upper bound for the back off of unchanged devices
+     */
+    public void setIntervals(int minIntervalInSeconds, int initialIntervalInSeconds, int maxIntervalInSeconds)
+    {
+        this.minIntervalInSeconds = Math.max(minIntervalInSeconds, 1);
+        this.maxIntervalInSeconds = Math.max(maxIntervalInSeconds, this.minIntervalInSeconds);
+        this.initialIntervalInSeconds =
+            Math.min(Math.max(initialIntervalInSeconds, this.minIntervalInSeconds), this.maxIntervalInSeconds);
+    }
+
+    /**
+     * Polls all enabled devices, that are due, and schedules their next poll. Blocks until all controllers answered or
+     * failed.
+     *
+     * @param devices the devices
+     * @return the devices, that have been polled
+     * @throws InterruptedException if interrupted while waiting for the controllers
+     */
+    public List<MNetDevice> pollDue(Collection<MNetDevice> devices) throws InterruptedException
+    {
+        long now = System.currentTimeMillis();
+        MNetRequestGroup group = requestGroup;
+        List<MNetDevice> dueDevices = new ArrayList<>();
+
+        for (MNetDevice device : devices)
+        {
+            if ((device.isEnabled()) && (device.getNextPollMillis() <= now))
+            {
+                dueDevices.add(device);
+                changedDevices.remove(device.getId());
+            }
+        }
+
+        if (dueDevices.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        poll(dueDevices, group);
+
+        if (group.isCanceled())
+        {
+            // the devices have not been polled, keep their interval and poll them with the next run
+            dueDevices.forEach(device -> device.setNextPollMillis(0));
+
+            return Collections.emptyList();
+        }
+
+        for (MNetDevice device : dueDevices)
+        {
+            schedule(device, changedDevices.remove(device.getId()));
+        }
+
+        if (LOG.isDebugEnabled())
+        {
+            LOG
+                .debug("Polled %d of %d device(s). The average poll interval is %.1f seconds.", dueDevices.size(),
+                    devices.size(), devices
+                        .stream()
+                        .filter(device -> device.getPollIntervalInSeconds() > 0)
+                        .mapToInt(MNetDevice::getPollIntervalInSeconds)
+                        .average()
+                        .orElse(0));
+        }
+
+        return dueDevices;
+    }
+
+    /**
+     * Computes the next poll of the device. Polls faster after a change or an operation, and backs off exponentially
+     * while the state stays unchanged.
+     *
+     * @param device the device
+     * @param changed true if the settings of the device changed with the last poll
+     */
+    protected void schedule(MNetDevice device, boolean changed)
+    {
+        int min = minIntervalInSeconds;
+        int max = maxIntervalInSeconds;
+        int interval;
+
+        if (device.consumePollExpedited())
+        {
+            interval = min;
+        }
+        else if (device.getPollIntervalInSeconds() <= 0)
+        {
+            interval = initialIntervalInSeconds;
+        }
+        else if (changed)
+        {
+            interval = min;
+        }
+        else
+        {
+            interval = device.getPollIntervalInSeconds() * 2;
+        }
+
+        interval = Math.min(Math.max(interval, min), max);
+
+        device.setPollIntervalInSeconds(interval);
+        device.setNextPollMillis(System.currentTimeMillis() + (interval * 1000L));
+
+        if (device.isPollExpedited())
+        {
+            // expedited while scheduling, keep the flag for the next run and poll it right away
+            device.setNextPollMillis(0);
+        }
+
+        LOG.debug("Next poll of air conditioner \"%s\" in %d seconds%s.", device.getName(), interval,
+            (changed) ? " (state changed)" : "");
+    }
+
+    /**
+     * Updates the state of all the devices. Blocks until all controllers answered or failed.
+     *
+     * @param devices the devices
+     * @throws InterruptedException if interrupted while waiting for the controllers
+     */
+    public void poll(Collection<MNetDevice> devices) throws InterruptedException
+    {
+        poll(devices, requestGroup);
+    }
+
+    protected void poll(Collection<MNetDevice> devices, MNetRequestGroup group) throws InterruptedException
+    {
+        Map<String, List<MNetDevice>> devicesByController = MNetService.groupByController(devices);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long startMillis = System.currentTimeMillis();
+
+        adjustThreads(devicesByController.size());
+
+        devicesByController.forEach((key, controllerDevices) -> futures.add(poll(key, controllerDevices, group)));
+
+        try
+        {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).get();
+        }
+        catch (ExecutionException e)
+        {
+            LOG.error("Unhandled error while polling", e.getCause());
+        }
+
+        LOG
+            .debug("Polled %d device(s) of %d controller(s) in %d ms.", devices.size(), devicesByController.size(),
+                System.currentTimeMillis() - startMillis);
+    }
+
+    protected CompletableFuture<Void> poll(String key, List<MNetDevice> devices, MNetRequestGroup group)
+    {
+        return CompletableFuture
+            .supplyAsync(() -> MNetService.prepareUpdate(devices, group), executor)
+            .thenCompose(chunks -> {
+                Queue<List<MNetDevice>> queue = new ConcurrentLinkedQueue<>(chunks);
+                int lanes = Math.min(maxRequestsPerController, chunks.size());
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[lanes];
+
+                for (int i = 0; i < lanes; i += 1)
+                {
+                    futures[i] = CompletableFuture.runAsync(() -> {
+                        List<MNetDevice> chunk;
+
+                        while ((chunk = queue.poll()) != null)
+                        {
+                            MNetService.monitorDevices(chunk, group);
+                        }
+                    }, executor);
+                }
+
+                return CompletableFuture.allOf(futures);
+            })
+            .exceptionally(e -> {
+                LOG.error("Failed to poll the devices of controller \"%s\".", e, key);
+
+                return null;
+            });
+    }
+
+    /**
+     * Allows one thread for each simultaneous request to each controller, bounded by the maximum number of threads. The
+     * threads get started on demand.
+     *
+     * @param numberOfControllers the number of controllers to poll
+     */
+    protected synchronized void adjustThreads(int numberOfControllers)
+    {
+        long required = (long) Math.max(numberOfControllers, 1) * maxRequestsPerController;
+        int numberOfThreads = (int) Math.min(required, executor.getMaximumPoolSize());
+
+        if (executor.getCorePoolSize() != numberOfThreads)
+        {
+            executor.setCorePoolSize(numberOfThreads);
+        }
+    }
+
+    /**
+     * Cancels all requests of the running polls. The devices, that have not been polled, will be polled with the next
+     * run.
+     */
+    public void cancel()
+    {
+        MNetRequestGroup group = requestGroup;
+
+        requestGroup = new MNetRequestGroup();
+
+        group.cancel();
+    }
+
+    public void shutdown()
+    {
+        MNetService.removeStateListener(stateListener);
+
+        cancel();
+
+        executor.shutdownNow();
+
+        try
+        {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            LOG.warn("Shutdown of poll engine got interrupted");
+        }
+    }
+
+}
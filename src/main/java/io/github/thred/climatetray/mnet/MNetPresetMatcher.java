@@ -0,0 +1,351 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the presets, that match all the selected devices. Each state is encoded into a signature, a preset
+ * into a mask and a value for the signature. The number of matching devices per preset gets updated only for the
+ * devices, whose settings changed (the matcher has to be registered as {@link MNetStateListener}). Matches the same way
+ * as {@link MNetService#isMatching(MNetPreset, MNetState)}.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetPresetMatcher implements MNetStateListener
+{
+
+    private static final long DRIVE_MASK = 0x3L;
+    private static final int MODE_SHIFT = 2;
+    private static final long MODE_MASK = 0xfL << MODE_SHIFT;
+    private static final long TEMPERATURE_ENABLED = 1L << 6;
+    private static final long TEMPERATURE_KNOWN = 1L << 7;
+    private static final int FAN_SHIFT = 8;
+    private static final long FAN_MASK = 0xfL << FAN_SHIFT;
+    private static final int AIR_SHIFT = 12;
+    private static final long AIR_MASK = 0xfL << AIR_SHIFT;
+    private static final int TEMPERATURE_SHIFT = 32;
+
+    /**
+     * Temperatures are set in steps of 0.5 degree Celsius or 1 degree Fahrenheit (5/9 degree Celsius), thus all
+     * differences are multiples of 1/18 degree Celsius.
+     */
+    private static final int TEMPERATURE_BUCKETS_PER_DEGREE = 18;
+
+    /**
+     * A tolerance of 0.667 degree Celsius, like {@link MNetService#isMatching(MNetPreset, MNetState)}.
+     */
+    private static final int TEMPERATURE_TOLERANCE = 12;
+
+    private static final long OFF = encode(MNetDrive.OFF);
+
+    private static class PresetSignature
+    {
+        private final UUID id;
+        private final boolean off;
+        private final boolean possible;
+        private final long mask;
+        private final long value;
+        private final boolean temperature;
+        private final int temperatureBucket;
+
+        PresetSignature(MNetPreset preset)
+        {
+            super();
+
+            MNetDrive drive = preset.getDrive();
+            MNetMode mode = preset.getMode();
+            MNetFan fan = preset.getFan();
+            MNetAir air = preset.getAir();
+            Double temperature = preset.getTemperature();
+            boolean possible = mode != null;
+            long mask = 0;
+            long value = 0;
+
+            if (drive != MNetDrive.NO_CHANGE)
+            {
+                mask |= DRIVE_MASK;
+                value |= encode(drive);
+            }
+
+            if (mode != MNetMode.NO_CHANGE)
+            {
+                mask |= MODE_MASK;
+                value |= encode(mode) << MODE_SHIFT;
+            }
+
+            if (temperature != null)
+            {
+                if (mode == MNetMode.NO_CHANGE)
+                {
+                    mask |= TEMPERATURE_ENABLED | TEMPERATURE_KNOWN;
+                    value |= TEMPERATURE_ENABLED | TEMPERATURE_KNOWN;
+                }
+                else
+                {
+                    possible &= (mode != null) && (mode.isTemperatureEnabled());
+                    mask |= TEMPERATURE_KNOWN;
+                    value |= TEMPERATURE_KNOWN;
+                }
+            }
+
+            if (fan != MNetFan.NO_CHANGE)
+            {
+                possible &= (mode != null) && (mode.isFanEnabled());
+                mask |= FAN_MASK;
+                value |= encode(fan) << FAN_SHIFT;
+            }
+
+            if (air != MNetAir.NO_CHANGE)
+            {
+                possible &= (mode != null) && (mode.isAirEnabled());
+                mask |= AIR_MASK;
+                value |= encode(air) << AIR_SHIFT;
+            }
+
+            id = preset.getId();
+            off = drive == MNetDrive.OFF;
+            this.possible = possible;
+            this.mask = mask;
+            this.value = value;
+            this.temperature = temperature != null;
+            temperatureBucket = (temperature != null) ? toBucket(temperature) : 0;
+        }
+
+        boolean isMatching(long signature)
+        {
+            if ((signature & DRIVE_MASK) == OFF)
+            {
+                return off;
+            }
+
+            if ((!possible) || ((signature & mask) != value))
+            {
+                return false;
+            }
+
+            return (!temperature)
+                || (Math.abs((int) (signature >> TEMPERATURE_SHIFT) - temperatureBucket) <= TEMPERATURE_TOLERANCE);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof PresetSignature))
+            {
+                return false;
+            }
+
+            PresetSignature other = (PresetSignature) obj;
+
+            return (id.equals(other.id))
+                && (off == other.off)
+                && (possible == other.possible)
+                && (mask == other.mask)
+                && (value == other.value)
+                && (temperature == other.temperature)
+                && (temperatureBucket == other.temperatureBucket);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return id.hashCode();
+        }
+    }
+
+    private final Map<UUID, Long> signatures = new HashMap<>();
+    private final Set<UUID> changedDevices = ConcurrentHashMap.newKeySet();
+
+    private List<PresetSignature> presetSignatures = new ArrayList<>();
+    private int[] matchCounts = new int[0];
+
+    public MNetPresetMatcher()
+    {
+        super();
+    }
+
+    /**
+     * Encodes the state into a signature.
+     *
+     * @param state the state
+     * @return the signature
+     */
+    public static long signatureOf(MNetState state)
+    {
+        MNetMode mode = state.getMode();
+        Double temperature = state.getTemperature();
+        long signature = encode(state.getDrive());
+
+        signature |= encode(normalize(mode)) << MODE_SHIFT;
+
+        if ((mode != null) && (mode.isTemperatureEnabled()))
+        {
+            signature |= TEMPERATURE_ENABLED;
+        }
+
+        if (temperature != null)
+        {
+            signature |= TEMPERATURE_KNOWN;
+            signature |= ((long) toBucket(temperature)) << TEMPERATURE_SHIFT;
+        }
+
+        signature |= encode(state.getFan()) << FAN_SHIFT;
+        signature |= encode(state.getAir()) << AIR_SHIFT;
+
+        return signature;
+    }
+
+    @Override
+    public void stateChanged(MNetStateEvent event)
+    {
+        if (event.isSettingChanged())
+        {
+            changedDevices.add(event.getDevice().getId());
+        }
+    }
+
+    /**
+     * Updates the selection of the presets. Each preset gets selected, if it matches all devices, that are enabled,
+     * selected and working.
+     *
+     * @param presets the presets
+     * @param devices the devices
+     * @return true if the selection of any preset changed
+     */
+    public synchronized boolean update(List<MNetPreset> presets, List<MNetDevice> devices)
+    {
+        updatePresets(presets);
+
+        Set<UUID> ids = new HashSet<>();
+
+        for (MNetDevice device : devices)
+        {
+            if ((device.isEnabled()) && (device.isSelectedAndWorking()))
+            {
+                ids.add(device.getId());
+
+                if ((signatures.containsKey(device.getId())) && (!changedDevices.remove(device.getId())))
+                {
+                    continue;
+                }
+
+                Long signature = signatureOf(device.getState());
+                Long previousSignature = signatures.put(device.getId(), signature);
+
+                if (!signature.equals(previousSignature))
+                {
+                    count(previousSignature, -1);
+                    count(signature, 1);
+                }
+            }
+        }
+
+        Iterator<Map.Entry<UUID, Long>> iterator = signatures.entrySet().iterator();
+
+        while (iterator.hasNext())
+        {
+            Map.Entry<UUID, Long> entry = iterator.next();
+
+            if (!ids.contains(entry.getKey()))
+            {
+                count(entry.getValue(), -1);
+                changedDevices.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+
+        boolean changed = false;
+
+        for (int i = 0; i < presets.size(); i += 1)
+        {
+            MNetPreset preset = presets.get(i);
+            boolean selected = (!signatures.isEmpty()) && (matchCounts[i] == signatures.size());
+
+            if (preset.isSelected() != selected)
+            {
+                preset.setSelected(selected);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * Recounts the matches, if the presets have been changed.
+     *
+     * @param presets the presets
+     */
+    protected void updatePresets(List<MNetPreset> presets)
+    {
+        List<PresetSignature> currentPresetSignatures = new ArrayList<>(presets.size());
+
+        for (MNetPreset preset : presets)
+        {
+            currentPresetSignatures.add(new PresetSignature(preset));
+        }
+
+        if (currentPresetSignatures.equals(presetSignatures))
+        {
+            return;
+        }
+
+        presetSignatures = currentPresetSignatures;
+        matchCounts = new int[presetSignatures.size()];
+
+        signatures.values().forEach(signature -> count(signature, 1));
+    }
+
+    protected void count(Long signature, int delta)
+    {
+        if (signature == null)
+        {
+            return;
+        }
+
+        for (int i = 0; i < matchCounts.length; i += 1)
+        {
+            if (presetSignatures.get(i).isMatching(signature))
+            {
+                matchCounts[i] += delta;
+            }
+        }
+    }
+
+    private static MNetMode normalize(MNetMode mode)
+    {
+        return ((mode == MNetMode.AUTO_COOL) || (mode == MNetMode.AUTO_HEAT)) ? MNetMode.AUTO : mode;
+    }
+
+    private static long encode(Enum<?> value)
+    {
+        return (value != null) ? value.ordinal() + 1 : 0;
+    }
+
+    private static int toBucket(double temperature)
+    {
+        return (int) Math.round(temperature * TEMPERATURE_BUCKETS_PER_DEGREE);
+    }
+
+}
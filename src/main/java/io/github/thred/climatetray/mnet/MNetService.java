@@ -17,26 +17,98 @@ package io.github.thred.climatetray.mnet;
 import static io.github.thred.climatetray.ClimateTray.*;
 
 import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import javax.swing.event.EventListenerList;
 
 import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.mnet.request.AbstractMNetRequest;
 import io.github.thred.climatetray.mnet.request.MNetDeviceRequestItem;
 import io.github.thred.climatetray.mnet.request.MNetInfoRequest;
 import io.github.thred.climatetray.mnet.request.MNetMonitorRequest;
 import io.github.thred.climatetray.mnet.request.MNetOperateRequest;
+import io.github.thred.climatetray.mnet.request.MNetRequestCanceledException;
 import io.github.thred.climatetray.mnet.request.MNetRequestException;
+import io.github.thred.climatetray.mnet.request.MNetRequestGroup;
+import io.github.thred.climatetray.util.Utils;
 
 public class MNetService
 {
 
+    private static final int MAX_DEVICES_PER_REQUEST = 50;
+
+    private static final String MONITOR_COMMAND = "monitor";
+    private static final String INFO_COMMAND = "info";
+
+    private static final MNetInFlightRegistry<MNetDeviceRequestItem> IN_FLIGHT = new MNetInFlightRegistry<>();
+    private static final ConcurrentMap<String, MNetCircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+    private static final EventListenerList STATE_LISTENERS = new EventListenerList();
+
+    public static void addStateListener(MNetStateListener listener)
+    {
+        STATE_LISTENERS.add(MNetStateListener.class, listener);
+    }
+
+    public static void removeStateListener(MNetStateListener listener)
+    {
+        STATE_LISTENERS.remove(MNetStateListener.class, listener);
+    }
+
+    protected static void fireStateChanged(MNetStateEvent event)
+    {
+        for (MNetStateListener listener : STATE_LISTENERS.getListeners(MNetStateListener.class))
+        {
+            listener.stateChanged(event);
+        }
+    }
+
+    /**
+     * Replaces the state of the device and notifies the listeners about the fields, that have been changed.
+     *
+     * @param device the device
+     * @param change creates the new state from the current one, may be called multiple times, if another thread
+     *            replaced the state in the meantime
+     */
+    protected static void changeState(MNetDevice device, UnaryOperator<MNetState> change)
+    {
+        MNetState previousState;
+        MNetState state;
+
+        do
+        {
+            previousState = device.getState();
+            state = change.apply(previousState);
+        }
+        while (!device.compareAndSetState(previousState, state));
+
+        Set<MNetStateField> fields = MNetStateField.diff(previousState, state);
+
+        if (!fields.isEmpty())
+        {
+            fireStateChanged(new MNetStateEvent(device, previousState, state, fields));
+        }
+    }
+
     public static void resetFails(MNetDevice device)
     {
-        device.getState().setFails(0);
+        changeState(device, state -> state.withFails(0));
     }
 
     public static void incrementFails(MNetDevice device)
     {
-        device.getState().setFails(device.getState().getFails() + 1);
+        changeState(device, state -> state.withFails(state.getFails() + 1));
     }
 
     public static void disable(MNetDevice device)
@@ -54,31 +126,337 @@ public class MNetService
         ClimateTrayService.store();
     }
 
+    public static String getControllerKey(MNetDevice device)
+    {
+        try
+        {
+            URL url = device.getURL();
+
+            if (url != null)
+            {
+                return url.toExternalForm();
+            }
+        }
+        catch (MalformedURLException e)
+        {
+            // the key is only used for grouping, the error will be reported when updating
+        }
+
+        return Utils.ensure(device.getHost(), "");
+    }
+
+    /**
+     * Returns the circuit breaker of the centralized controller of the device.
+     *
+     * @param device the device
+     * @return the circuit breaker
+     */
+    public static MNetCircuitBreaker getCircuitBreaker(MNetDevice device)
+    {
+        return CIRCUIT_BREAKERS.computeIfAbsent(getControllerKey(device), MNetCircuitBreaker::new);
+    }
+
+    public static Collection<MNetCircuitBreaker> getCircuitBreakers()
+    {
+        return Collections.unmodifiableCollection(CIRCUIT_BREAKERS.values());
+    }
+
+    /**
+     * Describes the state of the circuit breaker of the centralized controller of the device.
+     *
+     * @param device the device
+     * @return the description, null if the circuit is closed
+     */
+    public static String describeCircuit(MNetDevice device)
+    {
+        MNetCircuitBreaker circuitBreaker = CIRCUIT_BREAKERS.get(getControllerKey(device));
+
+        return (circuitBreaker != null) ? circuitBreaker.describe() : null;
+    }
+
+    /**
+     * Groups the devices by the centralized controller, they are connected to.
+     *
+     * @param devices the devices
+     * @return the devices by the key of the controller, in the order of the first appearance
+     */
+    public static Map<String, List<MNetDevice>> groupByController(Collection<MNetDevice> devices)
+    {
+        return devices
+            .stream()
+            .collect(Collectors.groupingBy(MNetService::getControllerKey, LinkedHashMap::new, Collectors.toList()));
+    }
+
     public static void updateDevice(MNetDevice device)
     {
-        if (!device.isEnabled())
+        updateDevices(Collections.singletonList(device));
+    }
+
+    /**
+     * Updates the state of all the devices. The devices must be connected to the same centralized controller. Fetches
+     * the state of multiple devices with one request.
+     *
+     * @param devices the devices
+     */
+    public static void updateDevices(List<MNetDevice> devices)
+    {
+        prepareUpdate(devices).forEach(MNetService::monitorDevices);
+    }
+
+    /**
+     * Prepares the update of the devices by ensuring that all devices know their group. The devices must be connected
+     * to the same centralized controller. Skips all devices, if the circuit of the controller is open.
+     *
+     * @param devices the devices
+     * @return the devices, that can be updated, split into chunks of devices that can be updated with one request
+     */
+    public static List<List<MNetDevice>> prepareUpdate(List<MNetDevice> devices)
+    {
+        return prepareUpdate(devices, null);
+    }
+
+    /**
+     * Prepares the update of the devices by ensuring that all devices know their group. The devices must be connected
+     * to the same centralized controller. Skips all devices, if the circuit of the controller is open or the group has
+     * been canceled.
+     *
+     * @param devices the devices
+     * @param group the group for the requests, may be null
+     * @return the devices, that can be updated, split into chunks of devices that can be updated with one request
+     */
+    public static List<List<MNetDevice>> prepareUpdate(List<MNetDevice> devices, MNetRequestGroup group)
+    {
+        List<MNetDevice> enabledDevices =
+            devices.stream().filter(MNetDevice::isEnabled).collect(Collectors.toList());
+
+        if (enabledDevices.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        MNetCircuitBreaker circuitBreaker = getCircuitBreaker(enabledDevices.get(0));
+
+        if (!circuitBreaker.allowRequest())
+        {
+            LOG
+                .debug("Skipping %d air conditioner(s) at \"%s\", because the circuit is %s.", enabledDevices.size(),
+                    circuitBreaker.getKey(), circuitBreaker.getState());
+
+            return Collections.emptyList();
+        }
+
+        List<MNetDevice> pendingDevices = new ArrayList<>();
+
+        for (MNetDevice device : enabledDevices)
+        {
+            if ((circuitBreaker.isOpen()) || (isCanceled(group)))
+            {
+                return Collections.emptyList();
+            }
+
+            if (!ensureDeviceGroup(device, group))
+            {
+                if (isCanceled(group))
+                {
+                    return Collections.emptyList();
+                }
+
+                LOG.error("Cannot update state of air conditioner \"%s\" without group value.", device.getName());
+
+                incrementFails(device);
+
+                continue;
+            }
+
+            pendingDevices.add(device);
+        }
+
+        List<List<MNetDevice>> chunks = new ArrayList<>();
+
+        for (int i = 0; i < pendingDevices.size(); i += MAX_DEVICES_PER_REQUEST)
         {
+            chunks.add(pendingDevices.subList(i, Math.min(i + MAX_DEVICES_PER_REQUEST, pendingDevices.size())));
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Fetches the state of all the devices with one request. The devices must be connected to the same centralized
+     * controller and must know their group. Devices, whose state is already being fetched by another request, join
+     * this request instead. Only the caller sending the request counts the fails.
+     *
+     * @param devices the devices
+     */
+    public static void monitorDevices(List<MNetDevice> devices)
+    {
+        monitorDevices(devices, null);
+    }
+
+    /**
+     * Fetches the state of all the devices with one request. See {@link #monitorDevices(List)}.
+     *
+     * @param devices the devices
+     * @param group the group for the request, may be null
+     */
+    public static void monitorDevices(List<MNetDevice> devices, MNetRequestGroup group)
+    {
+        if (devices.isEmpty())
+        {
+            return;
+        }
+
+        MNetDevice firstDevice = devices.get(0);
+        URL url;
+
+        try
+        {
+            url = firstDevice.getURL();
+        }
+        catch (MalformedURLException e)
+        {
+            LOG.error("Invalid url for air conditioner \"%s\".", e, firstDevice.getName());
+
+            devices.forEach(MNetService::incrementFails);
+
             return;
         }
 
-        if (!ensureDeviceGroup(device))
+        if (url == null)
         {
-            LOG.error("Cannot update state of air conditioner \"%s\" without group value.", device.getName());
+            LOG.error("The address of the centralized controller is missing for air conditioner \"%s\".",
+                firstDevice.getName());
 
-            incrementFails(device);
+            devices.forEach(MNetService::incrementFails);
+
+            return;
         }
 
-        MNetMonitorRequest request = new MNetMonitorRequest();
+        MNetCircuitBreaker circuitBreaker = getCircuitBreaker(firstDevice);
+
+        if (circuitBreaker.isOpen())
+        {
+            LOG
+                .debug("Skipping %d air conditioner(s) at \"%s\", because the circuit is open.", devices.size(),
+                    circuitBreaker.getKey());
+
+            return;
+        }
+
+        Map<String, CompletableFuture<MNetDeviceRequestItem>> ownedFlights = new LinkedHashMap<>();
+        Map<String, MNetDevice> ownedDevices = new LinkedHashMap<>();
+        List<MNetDevice> sentDevices = new ArrayList<>();
+        Map<MNetDevice, CompletableFuture<MNetDeviceRequestItem>> joinedFlights = new LinkedHashMap<>();
+
+        for (MNetDevice device : devices)
+        {
+            String key = getFlightKey(device, MONITOR_COMMAND, device.getGroup());
+
+            if (!ownedFlights.containsKey(key))
+            {
+                CompletableFuture<MNetDeviceRequestItem> future = new CompletableFuture<>();
+                CompletableFuture<MNetDeviceRequestItem> pending = IN_FLIGHT.join(key, future);
+
+                if (pending != null)
+                {
+                    joinedFlights.put(device, pending);
+
+                    continue;
+                }
+
+                ownedFlights.put(key, future);
+                ownedDevices.put(key, device);
+            }
+
+            sentDevices.add(device);
+        }
 
         try
         {
-            request.addDevice(device).execute(device.getURL());
+            if (!sentDevices.isEmpty())
+            {
+                monitorDevices(url, group, circuitBreaker, sentDevices, ownedFlights, ownedDevices);
+            }
+        }
+        finally
+        {
+            ownedFlights.forEach((key, future) -> IN_FLIGHT.complete(key, future, null));
+        }
+
+        if (!joinedFlights.isEmpty())
+        {
+            LOG.debug("Joined %d pending request(s) at \"%s\".", joinedFlights.size(), firstDevice.getHost());
+        }
+
+        joinedFlights.forEach((device, pending) -> {
+            try
+            {
+                MNetDeviceRequestItem item = IN_FLIGHT.await(pending);
+
+                if (item != null)
+                {
+                    resetFails(device);
+
+                    updateDeviceState(device, item);
+                }
+            }
+            catch (MNetRequestException e)
+            {
+                LOG.debug("The joined request for air conditioner \"%s\" failed: %s", device.getName(), e);
+            }
+        });
+    }
 
+    private static void monitorDevices(URL url, MNetRequestGroup group, MNetCircuitBreaker circuitBreaker,
+        List<MNetDevice> devices, Map<String, CompletableFuture<MNetDeviceRequestItem>> ownedFlights,
+        Map<String, MNetDevice> ownedDevices)
+    {
+        MNetMonitorRequest request = attach(group, new MNetMonitorRequest());
+
+        try
+        {
+            for (MNetDevice device : devices)
+            {
+                if (!request.containsDevice(device))
+                {
+                    request.addDevice(device);
+                }
+            }
+
+            request.execute(url);
+
+            circuitBreaker.recordSuccess();
+        }
+        catch (MNetRequestCanceledException e)
+        {
+            LOG.debug("Request of %d air conditioner(s) at \"%s\" got canceled.", devices.size(),
+                devices.get(0).getHost());
+
+            ownedFlights.forEach((key, future) -> IN_FLIGHT.fail(key, future, e));
+
+            return;
+        }
+        catch (MNetRequestException e)
+        {
+            circuitBreaker.recordFailure();
+
+            LOG.error("Failed to request info of %d air conditioner(s) at \"%s\".", e, devices.size(),
+                devices.get(0).getHost());
+
+            devices.forEach(MNetService::incrementFails);
+            ownedFlights.forEach((key, future) -> IN_FLIGHT.fail(key, future, e));
+
+            return;
+        }
+
+        for (MNetDevice device : devices)
+        {
             MNetDeviceRequestItem item = request.getItemByDeviceGroup(device);
 
             if (item == null)
             {
-                LOG.error("The centralized controller did not return a state for the air conditioner \"%s\".");
+                LOG.error("The centralized controller did not return a state for the air conditioner \"%s\".",
+                    device.getName());
 
                 incrementFails(device);
             }
@@ -89,20 +467,82 @@ public class MNetService
                 updateDeviceState(device, item);
             }
         }
-        catch (MalformedURLException e)
+
+        ownedFlights
+            .forEach((key, future) -> IN_FLIGHT
+                .complete(key, future, request.getItemByDeviceGroup(ownedDevices.get(key))));
+    }
+
+    /**
+     * Fetches the state of the device, but does not update the device. Joins a request for the same device, if there is
+     * one in flight.
+     *
+     * @param device the device
+     * @param group the group for the request, may be null
+     * @return the state, null if the controller did not return one
+     * @throws MalformedURLException if the URL is invalid
+     * @throws MNetRequestException if the request failed
+     */
+    public static MNetDeviceRequestItem fetchState(MNetDevice device, MNetRequestGroup group)
+        throws MalformedURLException, MNetRequestException
+    {
+        String key = getFlightKey(device, MONITOR_COMMAND, device.getGroup());
+        CompletableFuture<MNetDeviceRequestItem> future = new CompletableFuture<>();
+        CompletableFuture<MNetDeviceRequestItem> pending = IN_FLIGHT.join(key, future);
+
+        if (pending != null)
         {
-            LOG.error("Invalid url for air conditioner \"%s\".", e, device.getName());
+            LOG.debug("Joined pending request for air conditioner \"%s\".", device.getName());
 
-            incrementFails(device);
+            return IN_FLIGHT.await(pending);
+        }
+
+        try
+        {
+            MNetMonitorRequest request = attach(group, new MNetMonitorRequest());
+
+            request.addDevice(device).execute(device.getURL());
+
+            getCircuitBreaker(device).recordSuccess();
+
+            MNetDeviceRequestItem item = request.getItemByDeviceGroup(device);
+
+            IN_FLIGHT.complete(key, future, item);
+
+            return item;
+        }
+        catch (MNetRequestCanceledException e)
+        {
+            IN_FLIGHT.fail(key, future, e);
+
+            throw e;
         }
         catch (MNetRequestException e)
         {
-            LOG.error("Failed to request info of air conditioner \"%s\".", e, device.getName());
+            getCircuitBreaker(device).recordFailure();
+            IN_FLIGHT.fail(key, future, e);
 
-            incrementFails(device);
+            throw e;
+        }
+        finally
+        {
+            IN_FLIGHT.complete(key, future, null);
         }
     }
 
+    /**
+     * Returns the key for the in-flight registry.
+     *
+     * @param device the device
+     * @param command the command
+     * @param unit the group or address of the unit
+     * @return the key
+     */
+    protected static String getFlightKey(MNetDevice device, String command, Integer unit)
+    {
+        return getControllerKey(device) + "|" + device.getEc() + "|" + unit + "|" + command;
+    }
+
     public static void adjustDevice(MNetDevice device, MNetPreset preset)
     {
         MNetOperateRequest request = new MNetOperateRequest();
@@ -111,6 +551,9 @@ public class MNetService
         {
             request.adjustDevice(device, preset).execute(device.getURL());
 
+            getCircuitBreaker(device).recordSuccess();
+            device.expeditePoll();
+
             MNetDeviceRequestItem item = request.getItemByDeviceGroup(device);
 
             if (item == null)
@@ -134,6 +577,8 @@ public class MNetService
         }
         catch (MNetRequestException e)
         {
+            getCircuitBreaker(device).recordFailure();
+
             LOG.error("Failed to request info of air conditioner \"%s\".", e, device.getName());
 
             incrementFails(device);
@@ -141,19 +586,48 @@ public class MNetService
     }
 
     public static boolean ensureDeviceGroup(MNetDevice device)
+    {
+        return ensureDeviceGroup(device, null);
+    }
+
+    /**
+     * Requests the group of the device, if it is missing.
+     *
+     * @param device the device
+     * @param group the group for the request, may be null
+     * @return true if the device knows its group
+     */
+    public static boolean ensureDeviceGroup(MNetDevice device, MNetRequestGroup group)
     {
         if (device.getGroup() != null)
         {
             return true;
         }
 
-        MNetInfoRequest request = new MNetInfoRequest();
+        String key = getFlightKey(device, INFO_COMMAND, device.getAddress());
+        CompletableFuture<MNetDeviceRequestItem> future = new CompletableFuture<>();
+        CompletableFuture<MNetDeviceRequestItem> pending = IN_FLIGHT.join(key, future);
 
         try
         {
-            request.addDevice(device).execute(device.getURL());
+            MNetDeviceRequestItem item;
+
+            if (pending != null)
+            {
+                item = IN_FLIGHT.await(pending);
+            }
+            else
+            {
+                MNetInfoRequest request = attach(group, new MNetInfoRequest());
+
+                request.addDevice(device).execute(device.getURL());
 
-            MNetDeviceRequestItem item = request.getItemByDeviceAddress(device);
+                getCircuitBreaker(device).recordSuccess();
+
+                item = request.getItemByDeviceAddress(device);
+
+                IN_FLIGHT.complete(key, future, item);
+            }
 
             if (item != null)
             {
@@ -164,17 +638,47 @@ public class MNetService
         {
             LOG.error("Invalid url for air conditioner %s.", e, device.getName());
         }
+        catch (MNetRequestCanceledException e)
+        {
+            IN_FLIGHT.fail(key, future, e);
+
+            LOG.debug("Request of info of air conditioner %s got canceled.", device.getName());
+        }
         catch (MNetRequestException e)
         {
+            if (pending == null)
+            {
+                getCircuitBreaker(device).recordFailure();
+            }
+
+            IN_FLIGHT.fail(key, future, e);
+
             LOG.error("Failed to request info of air conditioner %s.", e, device.getName());
         }
+        finally
+        {
+            IN_FLIGHT.complete(key, future, null);
+        }
 
         return device.getGroup() != null;
     }
 
+    private static <REQUEST_TYPE extends AbstractMNetRequest> REQUEST_TYPE attach(MNetRequestGroup group,
+        REQUEST_TYPE request)
+    {
+        return (group != null) ? group.attach(request) : request;
+    }
+
+    private static boolean isCanceled(MNetRequestGroup group)
+    {
+        return (group != null) && (group.isCanceled());
+    }
+
     public static void updateDeviceState(MNetDevice device, MNetDeviceRequestItem item)
     {
-        item.update(device);
+        item.updateProperties(device);
+
+        changeState(device, state -> item.updateState(device, state));
     }
 
     public static boolean isMatching(MNetPreset preset, List<MNetState> states)
@@ -19,6 +19,7 @@ import static io.github.thred.climatetray.ClimateTray.*;
 import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -27,20 +28,26 @@ import io.github.thred.climatetray.ClimateTrayImageState;
 import io.github.thred.climatetray.util.Copyable;
 import io.github.thred.climatetray.util.Utils;
 
-public class MNetState implements Copyable<MNetState>
+/**
+ * The state of an air conditioner. The state is immutable, a change results in a new state. Thus it can be read by any
+ * thread without locks and can be used as key.
+ *
+ * @author Manfred Hantschel
+ */
+public final class MNetState implements Copyable<MNetState>
 {
 
-    private MNetDrive drive = MNetDrive.OFF;
-    private MNetMode mode = MNetMode.AUTO;
-    private Double temperature = null;
-    private Double thermometer = null;
-    private MNetFan fan = null;
-    private MNetAir air = null;
-    private int fails = 0;
+    private final MNetDrive drive;
+    private final MNetMode mode;
+    private final Double temperature;
+    private final Double thermometer;
+    private final MNetFan fan;
+    private final MNetAir air;
+    private final int fails;
 
     public MNetState()
     {
-        super();
+        this(MNetDrive.OFF, MNetMode.AUTO, null, null, null, null, 0);
     }
 
     public MNetState(MNetDrive drive, MNetMode mode, Double temperature, Double thermometer, MNetFan fan, MNetAir air,
@@ -57,10 +64,13 @@ public class MNetState implements Copyable<MNetState>
         this.fails = fails;
     }
 
+    /**
+     * Returns the state itself, because it is immutable.
+     */
     @Override
     public MNetState deepCopy()
     {
-        return new MNetState(drive, mode, temperature, thermometer, fan, air, fails);
+        return this;
     }
 
     public MNetDrive getDrive()
@@ -68,77 +78,52 @@ public class MNetState implements Copyable<MNetState>
         return drive;
     }
 
-    public void setDrive(MNetDrive drive)
-    {
-        this.drive = drive;
-    }
-
     public MNetMode getMode()
     {
         return mode;
     }
 
-    public void setMode(MNetMode mode)
-    {
-        this.mode = mode;
-    }
-
     public Double getTemperature()
     {
         return temperature;
     }
 
-    public void setTemperature(Double temperature)
-    {
-        this.temperature = temperature;
-    }
-
     public Double getThermometer()
     {
         return thermometer;
     }
 
-    public void setThermometer(Double thermometer)
-    {
-        this.thermometer = thermometer;
-    }
-
     public MNetFan getFan()
     {
         return fan;
     }
 
-    public void setFan(MNetFan fan)
-    {
-        this.fan = fan;
-    }
-
     public MNetAir getAir()
     {
         return air;
     }
 
-    public void setAir(MNetAir air)
-    {
-        this.air = air;
-    }
-
     public int getFails()
     {
         return fails;
     }
 
-    public void setFails(int fails)
+    public MNetState withFails(int fails)
     {
-        this.fails = fails;
+        return (this.fails == fails) ? this : new MNetState(drive, mode, temperature, thermometer, fan, air, fails);
     }
 
     public Icon createIcon(ClimateTrayImageState state, int size)
     {
-        return new ImageIcon(createImage(state, size));
+        return getIcon(state, size);
     }
 
     public Image createImage(ClimateTrayImageState state, int size)
+    {
+        return getIcon(state, size).getImage();
+    }
+
+    private ImageIcon getIcon(ClimateTrayImageState state, int size)
     {
         MNetMode mode = getMode();
         Double thermometer = getThermometer();
@@ -152,7 +137,7 @@ public class MNetState implements Copyable<MNetState>
             air = null;
         }
 
-        return MNetUtils.createImage(state, size, drive, mode, thermometer, fan, air, fails > 0, fails > 10);
+        return MNetUtils.getIcon(state, size, drive, mode, thermometer, fan, air, fails > 0, fails > 10);
     }
 
     public List<Image> createImages(ClimateTrayImageState state, int... sizes)
@@ -233,6 +218,36 @@ public class MNetState implements Copyable<MNetState>
         return result.toString();
     }
 
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(drive, mode, temperature, thermometer, fan, air, fails);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+
+        if ((obj == null) || (getClass() != obj.getClass()))
+        {
+            return false;
+        }
+
+        MNetState other = (MNetState) obj;
+
+        return (drive == other.drive)
+            && (mode == other.mode)
+            && (Objects.equals(temperature, other.temperature))
+            && (Objects.equals(thermometer, other.thermometer))
+            && (fan == other.fan)
+            && (air == other.air)
+            && (fails == other.fails);
+    }
+
     @Override
     public String toString()
     {
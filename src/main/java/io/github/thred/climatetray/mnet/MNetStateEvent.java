@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.Collection;
+import java.util.EventObject;
+import java.util.Set;
+
+/**
+ * Notifies about the change of the state of an air conditioner.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetStateEvent extends EventObject
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final MNetState previousState;
+    private final MNetState state;
+    private final Set<MNetStateField> fields;
+
+    public MNetStateEvent(MNetDevice device, MNetState previousState, MNetState state, Set<MNetStateField> fields)
+    {
+        super(device);
+
+        this.previousState = previousState;
+        this.state = state;
+        this.fields = fields;
+    }
+
+    public MNetDevice getDevice()
+    {
+        return (MNetDevice) getSource();
+    }
+
+    /**
+     * Returns the state before the change.
+     *
+     * @return the previous state
+     */
+    public MNetState getPreviousState()
+    {
+        return previousState;
+    }
+
+    /**
+     * Returns the state after the change.
+     *
+     * @return the state
+     */
+    public MNetState getState()
+    {
+        return state;
+    }
+
+    public Set<MNetStateField> getFields()
+    {
+        return fields;
+    }
+
+    public boolean isChanged(MNetStateField field)
+    {
+        return fields.contains(field);
+    }
+
+    /**
+     * Returns true if any setting changed, that can be controlled by presets.
+     *
+     * @return true if changed
+     */
+    public boolean isSettingChanged()
+    {
+        return fields.stream().anyMatch(MNetStateField::isSetting);
+    }
+
+    /**
+     * Returns true if one of the events belongs to the device.
+     *
+     * @param events the events
+     * @param device the device, may be null
+     * @return true if the state of the device changed
+     */
+    public static boolean containsDevice(Collection<MNetStateEvent> events, MNetDevice device)
+    {
+        return (device != null)
+            && (events.stream().anyMatch(event -> device.getId().equals(event.getDevice().getId())));
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("State of air conditioner \"%s\" changed: %s", getDevice().getName(), fields);
+    }
+
+}
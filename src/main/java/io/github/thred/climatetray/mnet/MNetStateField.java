@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet;
+
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The fields of an {@link MNetState}, that may change.
+ *
+ * @author Manfred Hantschel
+ */
+public enum MNetStateField
+{
+
+    DRIVE(true),
+
+    MODE(true),
+
+    /**
+     * The set temperature.
+     */
+    TEMPERATURE(true),
+
+    /**
+     * The temperature measured at the inlet.
+     */
+    THERMOMETER(false),
+
+    FAN(true),
+
+    AIR(true),
+
+    FAILS(false);
+
+    private final boolean setting;
+
+    MNetStateField(boolean setting)
+    {
+        this.setting = setting;
+    }
+
+    /**
+     * Returns true if the field is a setting of the air conditioner, that can be controlled by presets.
+     *
+     * @return true if setting
+     */
+    public boolean isSetting()
+    {
+        return setting;
+    }
+
+    /**
+     * Compares the states and returns the fields, that differ.
+     *
+     * @param previousState the previous state, may be null
+     * @param state the current state, may be null
+     * @return the fields, that changed, empty if none
+     */
+    public static Set<MNetStateField> diff(MNetState previousState, MNetState state)
+    {
+        if ((previousState == null) || (state == null))
+        {
+            return (previousState == state) ? EnumSet.noneOf(MNetStateField.class)
+                : EnumSet.allOf(MNetStateField.class);
+        }
+
+        Set<MNetStateField> fields = EnumSet.noneOf(MNetStateField.class);
+
+        if (previousState.getDrive() != state.getDrive())
+        {
+            fields.add(DRIVE);
+        }
+
+        if (previousState.getMode() != state.getMode())
+        {
+            fields.add(MODE);
+        }
+
+        if (!Objects.equals(previousState.getTemperature(), state.getTemperature()))
+        {
+            fields.add(TEMPERATURE);
+        }
+
+        if (!Objects.equals(previousState.getThermometer(), state.getThermometer()))
+        {
+            fields.add(THERMOMETER);
+        }
+
+        if (previousState.getFan() != state.getFan())
+        {
+            fields.add(FAN);
+        }
+
+        if (previousState.getAir() != state.getAir())
+        {
+            fields.add(AIR);
+        }
+
+        if (previousState.getFails() != state.getFails())
+        {
+            fields.add(FAILS);
+        }
+
+        return fields;
+    }
+
+}
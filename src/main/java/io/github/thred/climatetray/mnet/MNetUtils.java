@@ -21,6 +21,11 @@ import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
@@ -32,6 +37,85 @@ import io.github.thred.climatetray.util.Utils;
 public class MNetUtils
 {
 
+    private static final int MAX_CACHED_ICONS = 256;
+
+    /**
+     * The key of a composed image. Contains everything, that is visible on the image.
+     */
+    private static final class ImageKey
+    {
+        private final ClimateTrayImageState state;
+        private final int size;
+        private final MNetDrive drive;
+        private final MNetMode mode;
+        private final Long temperature;
+        private final MNetFan fan;
+        private final MNetAir air;
+        private final boolean warn;
+        private final boolean error;
+
+        ImageKey(ClimateTrayImageState state, int size, MNetDrive drive, MNetMode mode, Long temperature, MNetFan fan,
+            MNetAir air, boolean warn, boolean error)
+        {
+            super();
+
+            this.state = state;
+            this.size = size;
+            this.drive = drive;
+            this.mode = mode;
+            this.temperature = temperature;
+            this.fan = fan;
+            this.air = air;
+            this.warn = warn;
+            this.error = error;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(state, size, drive, mode, temperature, fan, air, warn, error);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof ImageKey))
+            {
+                return false;
+            }
+
+            ImageKey other = (ImageKey) obj;
+
+            return (state == other.state)
+                && (size == other.size)
+                && (drive == other.drive)
+                && (mode == other.mode)
+                && (Objects.equals(temperature, other.temperature))
+                && (fan == other.fan)
+                && (air == other.air)
+                && (warn == other.warn)
+                && (error == other.error);
+        }
+    }
+
+    /**
+     * Composing an image needs up to six layers. Keeps the icons with the composed images by their visible content.
+     */
+    private static final Map<ImageKey, ImageIcon> CACHED_ICONS =
+        Collections.synchronizedMap(new LinkedHashMap<ImageKey, ImageIcon>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = -2870370398420435512L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ImageKey, ImageIcon> eldest)
+            {
+                return size() > MAX_CACHED_ICONS;
+            }
+        });
+
+    private static final AtomicLong ICON_CACHE_HITS = new AtomicLong();
+    private static final AtomicLong ICON_CACHE_MISSES = new AtomicLong();
+
     public static URL toURL(String host) throws MalformedURLException
     {
         if (Utils.isBlank(host))
@@ -67,11 +151,70 @@ public class MNetUtils
     public static Icon createIcon(ClimateTrayImageState state, int size, MNetDrive drive, MNetMode mode,
         Double temperature, MNetFan fan, MNetAir air, boolean warn, boolean error)
     {
-        return new ImageIcon(createImage(state, size, drive, mode, temperature, fan, air, warn, error));
+        return getIcon(state, size, drive, mode, temperature, fan, air, warn, error);
     }
 
     public static Image createImage(ClimateTrayImageState state, int size, MNetDrive drive, MNetMode mode,
         Double temperature, MNetFan fan, MNetAir air, boolean warn, boolean error)
+    {
+        return getIcon(state, size, drive, mode, temperature, fan, air, warn, error).getImage();
+    }
+
+    /**
+     * Returns the icon with the composed image. The icon is cached, neither the icon nor the image must be modified.
+     *
+     * @param state the state of the image
+     * @param size the size
+     * @param drive the drive, may be null
+     * @param mode the mode, may be null
+     * @param temperature the temperature in Celsius, may be null
+     * @param fan the fan, may be null
+     * @param air the air, may be null
+     * @param warn true to show the warn overlay
+     * @param error true to show the error overlay
+     * @return the icon
+     */
+    public static ImageIcon getIcon(ClimateTrayImageState state, int size, MNetDrive drive, MNetMode mode,
+        Double temperature, MNetFan fan, MNetAir air, boolean warn, boolean error)
+    {
+        Long roundedTemperature = (temperature != null)
+            ? Math.round(PREFERENCES.getTemperatureUnit().convertFromCelsius(temperature)) : null;
+        ImageKey key = new ImageKey(state, size, drive, mode, roundedTemperature, fan, air, warn, error);
+        ImageIcon icon = CACHED_ICONS.get(key);
+
+        if (icon != null)
+        {
+            ICON_CACHE_HITS.incrementAndGet();
+
+            return icon;
+        }
+
+        ICON_CACHE_MISSES.incrementAndGet();
+
+        icon = new ImageIcon(composeImage(state, size, drive, mode, roundedTemperature, fan, air, warn, error));
+
+        CACHED_ICONS.put(key, icon);
+
+        return icon;
+    }
+
+    /**
+     * Removes all cached icons. They will be composed again, when needed.
+     */
+    public static void clearIconCache()
+    {
+        CACHED_ICONS.clear();
+    }
+
+    public static String describeIconCacheStatistics()
+    {
+        return String
+            .format("[size=%d, hits=%d, misses=%d]", CACHED_ICONS.size(), ICON_CACHE_HITS.get(),
+                ICON_CACHE_MISSES.get());
+    }
+
+    private static Image composeImage(ClimateTrayImageState state, int size, MNetDrive drive, MNetMode mode,
+        Long temperature, MNetFan fan, MNetAir air, boolean warn, boolean error)
     {
         BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g = image.createGraphics();
@@ -103,7 +246,7 @@ public class MNetUtils
         {
             g.drawImage(ClimateTrayImage.BACKGROUND_TEMPERATURE.getImage(ClimateTrayImageState.NONE, size), 0, 0, null);
 
-            String value = String.valueOf(Math.round(PREFERENCES.getTemperatureUnit().convertFromCelsius(temperature)));
+            String value = String.valueOf(temperature);
             int x = (int) (size * 0.45);
 
             for (int i = value.length() - 1; i >= 0; i -= 1)
@@ -197,6 +340,8 @@ public class MNetUtils
             g.drawImage(ClimateTrayImage.FOREGROUND_WARN.getImage(ClimateTrayImageState.NONE, size), 0, 0, null);
         }
 
+        g.dispose();
+
         return image;
     }
 }
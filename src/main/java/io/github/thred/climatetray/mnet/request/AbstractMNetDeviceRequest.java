@@ -18,10 +18,12 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Node;
 
-import io.github.thred.climatetray.util.DomBuilder;
 import io.github.thred.climatetray.util.DomUtils;
+import io.github.thred.climatetray.util.XmlBuilder;
 
 public abstract class AbstractMNetDeviceRequest extends AbstractMNetRequest implements Iterable<MNetDeviceRequestItem>
 {
@@ -46,7 +48,7 @@ public abstract class AbstractMNetDeviceRequest extends AbstractMNetRequest impl
     }
 
     @Override
-    protected void buildRequestContent(DomBuilder builder) throws MNetRequestException
+    protected void buildRequestContent(XmlBuilder builder) throws MNetRequestException
     {
         for (MNetDeviceRequestItem item : requestItems)
         {
@@ -58,7 +60,7 @@ public abstract class AbstractMNetDeviceRequest extends AbstractMNetRequest impl
         }
     }
 
-    protected abstract void buildRequestItemContent(DomBuilder builder, MNetDeviceRequestItem item)
+    protected abstract void buildRequestItemContent(XmlBuilder builder, MNetDeviceRequestItem item)
         throws MNetRequestException;
 
     @Override
@@ -77,4 +79,18 @@ public abstract class AbstractMNetDeviceRequest extends AbstractMNetRequest impl
         return MNetDeviceRequestItem.parse(node);
     }
 
+    @Override
+    protected void parseResponseElement(XMLStreamReader reader) throws MNetRequestException
+    {
+        if ("Mnet".equals(reader.getLocalName()))
+        {
+            responseItems.add(parseResponseElementItem(reader));
+        }
+    }
+
+    protected MNetDeviceRequestItem parseResponseElementItem(XMLStreamReader reader) throws MNetRequestException
+    {
+        return MNetDeviceRequestItem.parse(reader);
+    }
+
 }
@@ -15,59 +15,301 @@
 package io.github.thred.climatetray.mnet.request;
 
 import static io.github.thred.climatetray.ClimateTray.*;
+import static io.github.thred.climatetray.ClimateTrayHttpRequestExecutor.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
-import io.github.thred.climatetray.ClimateTray;
+import io.github.thred.climatetray.ClimateTrayHttpClientPool;
+import io.github.thred.climatetray.mnet.MNetCommandMetrics;
+import io.github.thred.climatetray.mnet.MNetCommandMetrics.Outcome;
+import io.github.thred.climatetray.mnet.MNetCommandMetrics.Phase;
 import io.github.thred.climatetray.mnet.MNetDevice;
-import io.github.thred.climatetray.util.DomBuilder;
+import io.github.thred.climatetray.mnet.MNetHostMetrics;
+import io.github.thred.climatetray.mnet.MNetMetrics;
 import io.github.thred.climatetray.util.DomUtils;
+import io.github.thred.climatetray.util.DomUtils.DOMIOException;
 import io.github.thred.climatetray.util.Utils;
+import io.github.thred.climatetray.util.XmlBuilder;
 import io.github.thred.climatetray.util.message.Message;
+import io.github.thred.climatetray.util.message.MessagePayload;
 
 public abstract class AbstractMNetRequest implements MNetRequest
 {
 
+    /**
+     * The timeout of requests without explicit deadline.
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 20 * 1000;
+
+    private static final int MAX_CONNECT_TIMEOUT_MILLIS = 5 * 1000;
+    private static final boolean DOM_PARSER = Boolean.getBoolean("mnet.dom");
+    private static final ScheduledThreadPoolExecutor DEADLINE_EXECUTOR;
+    private static final XMLInputFactory INPUT_FACTORY;
+
+    static
+    {
+        DEADLINE_EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "Climate Tray Deadline Thread");
+
+            thread.setDaemon(true);
+
+            return thread;
+        });
+
+        // most deadlines get canceled long before they expire, don't keep them in the queue
+        DEADLINE_EXECUTOR.setRemoveOnCancelPolicy(true);
+
+        INPUT_FACTORY = XMLInputFactory.newInstance();
+
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private long deadlineMillis = 0;
+    private MNetRequestGroup group = null;
+
+    private volatile HttpPost activePost = null;
+    private volatile boolean canceled = false;
+    private volatile boolean deadlineExceeded = false;
+
+    private Outcome outcome = null;
+
     public AbstractMNetRequest()
     {
         super();
     }
 
+    /**
+     * Returns the deadline of the request.
+     *
+     * @return the deadline in milliseconds, 0 if the request will use the default timeout
+     */
+    public long getDeadlineMillis()
+    {
+        return deadlineMillis;
+    }
+
+    /**
+     * Sets the deadline of the request. All timeouts are derived from the deadline, and the request gets aborted, if it
+     * takes longer.
+     *
+     * @param deadlineMillis the deadline in milliseconds, 0 to use the default timeout
+     */
+    public void setDeadlineMillis(long deadlineMillis)
+    {
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    /**
+     * Sets the deadline of the request relative to now.
+     *
+     * @param timeoutMillis the timeout in milliseconds
+     */
+    public void setTimeoutMillis(long timeoutMillis)
+    {
+        setDeadlineMillis(System.currentTimeMillis() + timeoutMillis);
+    }
+
+    public MNetRequestGroup getGroup()
+    {
+        return group;
+    }
+
+    /**
+     * Sets the group of the request. Use {@link MNetRequestGroup#attach(AbstractMNetRequest)}.
+     *
+     * @param group the group
+     */
+    protected void setGroup(MNetRequestGroup group)
+    {
+        this.group = group;
+    }
+
+    @Override
+    public void cancel()
+    {
+        canceled = true;
+
+        HttpPost currentPost = activePost;
+
+        if (currentPost != null)
+        {
+            currentPost.abort();
+        }
+    }
+
+    @Override
+    public boolean isCanceled()
+    {
+        return canceled;
+    }
+
     @Override
     public final void execute(URL url, String... additionalProxyExcludes) throws MNetRequestException
     {
+        long deadline = (deadlineMillis > 0) ? deadlineMillis : System.currentTimeMillis() + DEFAULT_TIMEOUT_MILLIS;
+        MNetHostMetrics metrics = MNetMetrics.of(url.getAuthority());
+        MNetCommandMetrics commandMetrics = metrics.of(getRequestCommand());
+
+        if (group != null)
+        {
+            group.register(this);
+        }
+
+        outcome = null;
+
+        try
+        {
+            metrics.recordRequest();
+
+            execute(url, deadline, commandMetrics, additionalProxyExcludes);
+
+            outcome = Outcome.SUCCESS;
+        }
+        catch (MNetRequestException e)
+        {
+            if (canceled)
+            {
+                outcome = Outcome.CANCELED;
+
+                metrics.recordCancellation();
+
+                throw new MNetRequestCanceledException("The request to \"%s\" got canceled.", e,
+                    url.toExternalForm());
+            }
+
+            metrics.recordFailure();
+
+            if ((deadlineExceeded) || (isTimeout(e)))
+            {
+                outcome = Outcome.TIMEOUT;
+
+                metrics.recordTimeout();
+
+                throw new MNetRequestException("The request to \"%s\" timed out.", e, url.toExternalForm())
+                    .hint(Message
+                        .error("The centralized controller did not answer in time.\n\n"
+                            + "The controller may be busy or there may be a network problem. "
+                            + "Try to call the URL \"%s\" in a browser.", url.toExternalForm()));
+            }
+
+            throw e;
+        }
+        finally
+        {
+            commandMetrics.recordOutcome((outcome != null) ? outcome : Outcome.TRANSPORT_FAILURE);
+
+            activePost = null;
+
+            if (group != null)
+            {
+                group.unregister(this);
+            }
+        }
+    }
+
+    private void execute(URL url, long deadline, MNetCommandMetrics metrics, String... additionalProxyExcludes)
+        throws MNetRequestException
+    {
+        ClimateTrayHttpClientPool.Lease lease = null;
+
         try
         {
-            String content = buildRequest();
-            StringEntity body = new StringEntity(content);
-            CloseableHttpClient client =
-                ClimateTray.PREFERENCES.getProxySettings().createHttpClient(additionalProxyExcludes);
+            long remainingMillis = deadline - System.currentTimeMillis();
+
+            if (canceled)
+            {
+                throw new MNetRequestException("The request has been canceled before sending it to \"%s\".",
+                    url.toExternalForm());
+            }
+
+            if (remainingMillis <= 0)
+            {
+                deadlineExceeded = true;
+
+                throw new MNetRequestException("The deadline passed before sending the request to \"%s\".",
+                    url.toExternalForm());
+            }
+
+            byte[] content = buildRequest();
+            ByteArrayEntity body = new ByteArrayEntity(content);
+            lease = ClimateTrayHttpClientPool.lease(additionalProxyExcludes);
+
+            CloseableHttpClient client = lease.getClient();
             HttpPost post = new HttpPost(url.toURI());
+            int timeout = (int) Math.min(remainingMillis, Integer.MAX_VALUE);
 
             post.setHeader("content-type", "text/xml");
             post.setEntity(body);
+            post
+                .setConfig(RequestConfig
+                    .custom()
+                    .setConnectTimeout(Math.min(timeout, MAX_CONNECT_TIMEOUT_MILLIS))
+                    .setConnectionRequestTimeout(timeout)
+                    .setSocketTimeout(timeout)
+                    .build());
+
+            activePost = post;
+
+            if (canceled)
+            {
+                post.abort();
+            }
 
-            LOG.debug("Sending request to \"%s\". The request is:\n%s", url.toExternalForm(), content);
+            if (LOG.isDebugEnabled())
+            {
+                LOG
+                    .debug("Sending request to \"%s\". The request is:\n%s", url.toExternalForm(),
+                        MessagePayload.of(content, StandardCharsets.UTF_8));
+            }
 
             CloseableHttpResponse response;
+            HttpClientContext context = HttpClientContext.create();
+            long startNanos = System.nanoTime();
+            ScheduledFuture<?> deadlineFuture = DEADLINE_EXECUTOR.schedule(() -> {
+                deadlineExceeded = true;
+
+                post.abort();
+            }, remainingMillis, TimeUnit.MILLISECONDS);
 
             try
             {
-                response = client.execute(post);
+                response = client.execute(post, context);
+
+                recordPhases(metrics, context, startNanos, System.nanoTime());
             }
             catch (IOException e)
             {
+                recordPhases(metrics, context, startNanos, System.nanoTime());
+
+                deadlineFuture.cancel(false);
+
                 throw new MNetRequestException("Failed to send request to \"%s\".", e, url.toExternalForm())
                     .hint(Message
                         .error(
@@ -87,6 +329,8 @@ public abstract class AbstractMNetRequest implements MNetRequest
 
                     if (entity != null)
                     {
+                        long parseNanos = System.nanoTime();
+
                         try
                         {
                             InputStream in = entity.getContent();
@@ -99,7 +343,7 @@ public abstract class AbstractMNetRequest implements MNetRequest
 
                                     LOG
                                         .debug("Reading response from \"%s\". The response is:\n%s",
-                                            url.toExternalForm(), new String(bytes, "UTF-8"));
+                                            url.toExternalForm(), MessagePayload.of(bytes, StandardCharsets.UTF_8));
 
                                     in = new ByteArrayInputStream(bytes);
                                 }
@@ -113,10 +357,14 @@ public abstract class AbstractMNetRequest implements MNetRequest
                         }
                         catch (MNetRequestException e)
                         {
+                            outcome = Outcome.ERROR_RESPONSE;
+
                             throw e;
                         }
                         catch (Exception e)
                         {
+                            outcome = Outcome.PARSE_FAILURE;
+
                             throw new MNetRequestException("Failed to parse response from \"%s\".", e,
                                 url.toExternalForm())
                                     .hint(Message
@@ -125,10 +373,16 @@ public abstract class AbstractMNetRequest implements MNetRequest
                                             + "Check the contents of the field \"Controller Address\" or try to call the URL \"%s\" in a browser.",
                                             url.toExternalForm()));
                         }
+                        finally
+                        {
+                            metrics.recordPhase(Phase.PARSE, System.nanoTime() - parseNanos);
+                        }
                     }
                 }
                 else
                 {
+                    outcome = Outcome.HTTP_ERROR;
+
                     throw new MNetRequestException("Request to \"%s\" failed with error %d.", url.toExternalForm(),
                         status)
                             .hint(Message
@@ -140,6 +394,10 @@ public abstract class AbstractMNetRequest implements MNetRequest
             }
             finally
             {
+                deadlineFuture.cancel(false);
+
+                EntityUtils.consumeQuietly(response.getEntity());
+
                 response.close();
             }
         }
@@ -155,11 +413,76 @@ public abstract class AbstractMNetRequest implements MNetRequest
                         .error(
                             "The request failed for some unknown reason.\n\nYou can check the log for the detailed exception."));
         }
+        finally
+        {
+            if (lease != null)
+            {
+                lease.close();
+            }
+        }
+    }
+
+    /**
+     * Records the duration of the connect, send and wait phase.
+     *
+     * @param metrics the metrics
+     * @param context the context of the request
+     * @param startNanos the start of the request
+     * @param endNanos the time, when the head of the response has been received or the request failed
+     */
+    protected static void recordPhases(MNetCommandMetrics metrics, HttpContext context, long startNanos,
+        long endNanos)
+    {
+        long sendStartNanos = getNanos(context, SEND_START_NANOS);
+        long sendEndNanos = getNanos(context, SEND_END_NANOS);
+
+        if (sendStartNanos == 0)
+        {
+            // the connection failed
+            metrics.recordPhase(Phase.CONNECT, endNanos - startNanos);
+
+            return;
+        }
+
+        metrics.recordPhase(Phase.CONNECT, sendStartNanos - startNanos);
+
+        if (sendEndNanos != 0)
+        {
+            metrics.recordPhase(Phase.SEND, sendEndNanos - sendStartNanos);
+            metrics.recordPhase(Phase.WAIT, endNanos - sendEndNanos);
+        }
+    }
+
+    /**
+     * Returns true, if the exception has been caused by a timeout.
+     *
+     * @param exception the exception
+     * @return true on a timeout
+     */
+    protected static boolean isTimeout(Throwable exception)
+    {
+        while (exception != null)
+        {
+            if ((exception instanceof SocketTimeoutException) || (exception instanceof ConnectTimeoutException))
+            {
+                return true;
+            }
+
+            exception = exception.getCause();
+        }
+
+        return false;
     }
 
-    protected final String buildRequest() throws MNetRequestException
+    /**
+     * Builds the request. The result must not be modified, because implementations may cache it.
+     *
+     * @return the request, encoded with UTF-8
+     * @throws MNetRequestException on occasion
+     */
+    protected byte[] buildRequest() throws MNetRequestException
     {
-        DomBuilder builder = new DomBuilder();
+        XmlBuilder builder = new XmlBuilder();
 
         builder.begin("Packet");
         {
@@ -172,54 +495,146 @@ public abstract class AbstractMNetRequest implements MNetRequest
         }
         builder.end();
 
-        return DomUtils.toString(builder.getDocument());
+        return builder.toByteArray();
     }
 
     protected abstract String getRequestCommand();
 
-    protected abstract void buildRequestContent(DomBuilder builder) throws MNetRequestException;
+    protected abstract void buildRequestContent(XmlBuilder builder) throws MNetRequestException;
 
+    /**
+     * Parses the response. Uses a streaming parser, unless the system property "mnet.dom" is set to true.
+     *
+     * @param inputStream the stream with the response
+     * @throws IOException on occasion
+     * @throws MNetRequestException if the response contains an error
+     */
     public void parseResponse(InputStream inputStream) throws IOException, MNetRequestException
     {
-        Document document = DomUtils.read(inputStream);
-        Node errorNode = DomUtils.find(document, "//ERROR");
-
-        if (errorNode != null)
+        if (DOM_PARSER)
         {
-            String point = DomUtils.getAttribute(errorNode, "Point");
-            String code = DomUtils.getAttribute(errorNode, "Code");
-            String message = DomUtils.getAttribute(errorNode, "Message");
+            parseResponseWithDom(inputStream);
+        }
+        else
+        {
+            parseResponseWithStream(inputStream);
+        }
+    }
 
-            MNetRequestException e;
+    /**
+     * Parses the response with a pull-parser in one pass. Decodes the elements as they occur and detects errors in
+     * the same pass.
+     *
+     * @param inputStream the stream with the response
+     * @throws IOException on occasion
+     * @throws MNetRequestException if the response contains an error
+     */
+    public void parseResponseWithStream(InputStream inputStream) throws IOException, MNetRequestException
+    {
+        MNetRequestException exception = null;
 
-            if (Utils.isBlank(point))
+        try
+        {
+            XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+
+            try
             {
-                e = new MNetRequestException("The response contained the error \"%s\" (%s).", message, code);
+                while (reader.hasNext())
+                {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT)
+                    {
+                        continue;
+                    }
+
+                    if ("ERROR".equals(reader.getLocalName()))
+                    {
+                        if (exception == null)
+                        {
+                            exception = createErrorException(reader.getAttributeValue(null, "Point"),
+                                reader.getAttributeValue(null, "Code"), reader.getAttributeValue(null, "Message"));
+                        }
+                    }
+                    else
+                    {
+                        parseResponseElement(reader);
+                    }
+                }
             }
-            else
+            finally
             {
-                e = new MNetRequestException("The response contained the error \"%s\" (%s) at %s.", message, code,
-                    point);
+                reader.close();
             }
+        }
+        catch (XMLStreamException e)
+        {
+            throw new DOMIOException("Could not parse xml", e);
+        }
+
+        if (exception != null)
+        {
+            throw exception;
+        }
+    }
 
-            throw e
-                .hint(Message
-                    .error("The response contained the error \"%s\".\n\n"
-                        + "This indicates that the centralized controller was successfully contacted, but it did not understand the request. "
-                        + "Please make sure that the values of the fields \"EC\" and \"Air Conditioner Address\" are correct.",
-                        message));
+    /**
+     * Parses the response by reading the whole DOM first.
+     *
+     * @param inputStream the stream with the response
+     * @throws IOException on occasion
+     * @throws MNetRequestException if the response contains an error
+     */
+    public void parseResponseWithDom(InputStream inputStream) throws IOException, MNetRequestException
+    {
+        Document document = DomUtils.read(inputStream);
+        Node errorNode = DomUtils.find(document, "//ERROR");
+
+        if (errorNode != null)
+        {
+            throw createErrorException(DomUtils.getAttribute(errorNode, "Point"),
+                DomUtils.getAttribute(errorNode, "Code"), DomUtils.getAttribute(errorNode, "Message"));
         }
 
         parseResponseContent(document);
     }
 
+    protected MNetRequestException createErrorException(String point, String code, String message)
+    {
+        MNetRequestException e;
+
+        if (Utils.isBlank(point))
+        {
+            e = new MNetRequestException("The response contained the error \"%s\" (%s).", message, code);
+        }
+        else
+        {
+            e = new MNetRequestException("The response contained the error \"%s\" (%s) at %s.", message, code,
+                point);
+        }
+
+        return e
+            .hint(Message
+                .error("The response contained the error \"%s\".\n\n"
+                    + "This indicates that the centralized controller was successfully contacted, but it did not understand the request. "
+                    + "Please make sure that the values of the fields \"EC\" and \"Air Conditioner Address\" are correct.",
+                    message));
+    }
+
+    /**
+     * Called by the streaming parser for each start element, except the error element. The reader is positioned on the
+     * start element. Implementations must not move the reader.
+     *
+     * @param reader the reader
+     * @throws MNetRequestException on occasion
+     */
+    protected abstract void parseResponseElement(XMLStreamReader reader) throws MNetRequestException;
+
     protected abstract void parseResponseContent(Node document) throws MNetRequestException;
 
     public String describe(MNetDevice device)
     {
         try
         {
-            return buildRequest();
+            return new String(buildRequest(), StandardCharsets.UTF_8);
         }
         catch (MNetRequestException e)
         {
@@ -16,6 +16,8 @@ package io.github.thred.climatetray.mnet.request;
 
 import static io.github.thred.climatetray.ClimateTray.*;
 
+import javax.xml.stream.XMLStreamReader;
+
 import org.w3c.dom.Node;
 
 import io.github.thred.climatetray.mnet.MNetAir;
@@ -25,7 +27,9 @@ import io.github.thred.climatetray.mnet.MNetEc;
 import io.github.thred.climatetray.mnet.MNetFan;
 import io.github.thred.climatetray.mnet.MNetMode;
 import io.github.thred.climatetray.mnet.MNetPreset;
+import io.github.thred.climatetray.mnet.MNetState;
 import io.github.thred.climatetray.util.DomUtils;
+import io.github.thred.climatetray.util.Utils;
 
 public class MNetDeviceRequestItem
 {
@@ -47,6 +51,89 @@ public class MNetDeviceRequestItem
         return result;
     }
 
+    public static MNetDeviceRequestItem parse(XMLStreamReader reader)
+    {
+        MNetEc ec = null;
+        Integer address = null;
+        Integer group = null;
+        String model = null;
+        MNetDrive drive = null;
+        MNetMode mode = null;
+        Double temperature = null;
+        Double thermometer = null;
+        MNetAir air = null;
+        MNetFan fan = null;
+
+        for (int i = 0; i < reader.getAttributeCount(); i += 1)
+        {
+            String value = reader.getAttributeValue(i);
+
+            if (Utils.isBlank(value))
+            {
+                continue;
+            }
+
+            switch (reader.getAttributeLocalName(i))
+            {
+                case "Ec":
+                    ec = MNetEc.valueOfKey(value);
+                    break;
+
+                case "Address":
+                    address = valueOfIntegerKey(value);
+                    break;
+
+                case "Group":
+                    group = valueOfIntegerKey(value);
+                    break;
+
+                case "Model":
+                    model = valueOfStringKey(value);
+                    break;
+
+                case "Drive":
+                    drive = MNetDrive.valueOfKey(value);
+                    break;
+
+                case "Mode":
+                    mode = MNetMode.valueOfKey(value);
+                    break;
+
+                case "SetTemp":
+                    temperature = valueOfDoubleKey(value);
+                    break;
+
+                case "InletTemp":
+                    thermometer = valueOfDoubleKey(value);
+                    break;
+
+                case "AirDirection":
+                    air = MNetAir.valueOfKey(value);
+                    break;
+
+                case "FanSpeed":
+                    fan = MNetFan.valueOfKey(value);
+                    break;
+
+                default:
+                    // ignore unknown attributes
+                    break;
+            }
+        }
+
+        MNetDeviceRequestItem result = new MNetDeviceRequestItem(ec, address, group);
+
+        result.setModel(model);
+        result.setDrive(drive);
+        result.setMode(mode);
+        result.setTemperature(temperature);
+        result.setThermometer(thermometer);
+        result.setAir(air);
+        result.setFan(fan);
+
+        return result;
+    }
+
     private final MNetEc ec;
     private final Integer address;
     private final Integer group;
@@ -198,7 +285,12 @@ public class MNetDeviceRequestItem
         this.fan = fan;
     }
 
-    public void update(MNetDevice device)
+    /**
+     * Updates the properties of the device (e.g. the group or the model), but not the state.
+     *
+     * @param device the device
+     */
+    public void updateProperties(MNetDevice device)
     {
         if (ec != null)
         {
@@ -219,36 +311,22 @@ public class MNetDeviceRequestItem
         {
             device.setModel(model);
         }
+    }
 
-        if (drive != null)
-        {
-            device.getState().setDrive(drive);
-        }
-
-        if (mode != null)
-        {
-            device.getState().setMode(mode);
-        }
-
-        if (temperature != null)
-        {
-            device.getState().setTemperature(temperature);
-        }
-
-        if (thermometer != null)
-        {
-            device.getState().setThermometer(thermometer);
-        }
-
-        if (air != null)
-        {
-            device.getState().setAir(device.getInstallation().translate(air));
-        }
-
-        if (fan != null)
-        {
-            device.getState().setFan(fan);
-        }
+    /**
+     * Creates a new state with the values of the response. Values, that are missing in the response, are taken from
+     * the specified state.
+     *
+     * @param device the device
+     * @param state the current state
+     * @return the new state
+     */
+    public MNetState updateState(MNetDevice device, MNetState state)
+    {
+        return new MNetState((drive != null) ? drive : state.getDrive(), (mode != null) ? mode : state.getMode(),
+            (temperature != null) ? temperature : state.getTemperature(),
+            (thermometer != null) ? thermometer : state.getThermometer(), (fan != null) ? fan : state.getFan(),
+            (air != null) ? device.getInstallation().translate(air) : state.getAir(), state.getFails());
     }
 
     @Override
@@ -17,7 +17,7 @@ package io.github.thred.climatetray.mnet.request;
 import java.util.Objects;
 
 import io.github.thred.climatetray.mnet.MNetDevice;
-import io.github.thred.climatetray.util.DomBuilder;
+import io.github.thred.climatetray.util.XmlBuilder;
 
 public class MNetInfoRequest extends AbstractMNetDeviceRequest
 {
@@ -60,7 +60,7 @@ public class MNetInfoRequest extends AbstractMNetDeviceRequest
     }
 
     @Override
-    protected void buildRequestItemContent(DomBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
+    protected void buildRequestItemContent(XmlBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
     {
         builder.attribute("Ec", item.getEc().getKey());
         builder.attribute("Address", item.getAddress());
@@ -14,14 +14,41 @@
  */
 package io.github.thred.climatetray.mnet.request;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import io.github.thred.climatetray.mnet.MNetDevice;
-import io.github.thred.climatetray.util.DomBuilder;
+import io.github.thred.climatetray.util.XmlBuilder;
 
 public class MNetMonitorRequest extends AbstractMNetDeviceRequest
 {
 
+    private static final int MAX_CACHED_REQUESTS = 64;
+
+    /**
+     * The monitor requests for a fixed set of devices are identical in each cycle. Keeps the encoded requests by the
+     * device set.
+     */
+    private static final Map<String, byte[]> CACHED_REQUESTS =
+        Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 5683407813593734702L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest)
+            {
+                return size() > MAX_CACHED_REQUESTS;
+            }
+        });
+
+    private Map<Integer, List<MNetDeviceRequestItem>> responseItemsByGroup;
+
     public MNetMonitorRequest()
     {
         super();
@@ -50,17 +77,60 @@ public class MNetMonitorRequest extends AbstractMNetDeviceRequest
         return this;
     }
 
+    public boolean containsDevice(MNetDevice device)
+    {
+        return requestItems
+            .stream()
+            .anyMatch(item -> (item.getEc() == device.getEc()) && (Objects.equals(device.getGroup(), item.getGroup())));
+    }
+
     public MNetDeviceRequestItem getItemByDeviceGroup(MNetDevice device)
     {
-        return responseItems
+        if (responseItemsByGroup == null)
+        {
+            responseItemsByGroup = new HashMap<>();
+
+            for (MNetDeviceRequestItem item : responseItems)
+            {
+                responseItemsByGroup.computeIfAbsent(item.getGroup(), group -> new ArrayList<>()).add(item);
+            }
+        }
+
+        List<MNetDeviceRequestItem> items = responseItemsByGroup.get(device.getGroup());
+
+        if (items == null)
+        {
+            return null;
+        }
+
+        return items
             .stream()
-            .filter(item -> Objects.equals(device.getGroup(), item.getGroup()))
+            .filter(item -> (item.getEc() == null) || (item.getEc() == device.getEc()))
             .findFirst()
             .orElse(null);
     }
 
     @Override
-    protected void buildRequestItemContent(DomBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
+    protected byte[] buildRequest() throws MNetRequestException
+    {
+        String key = requestItems
+            .stream()
+            .map(item -> item.getEc().getKey() + ":" + item.getGroup())
+            .collect(Collectors.joining(","));
+        byte[] request = CACHED_REQUESTS.get(key);
+
+        if (request == null)
+        {
+            request = super.buildRequest();
+
+            CACHED_REQUESTS.put(key, request);
+        }
+
+        return request;
+    }
+
+    @Override
+    protected void buildRequestItemContent(XmlBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
     {
         builder.attribute("Ec", item.getEc().getKey());
         builder.attribute("Group", item.getGroup());
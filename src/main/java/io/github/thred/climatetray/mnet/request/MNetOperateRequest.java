@@ -20,7 +20,7 @@ import java.util.Objects;
 import io.github.thred.climatetray.mnet.MNetDevice;
 import io.github.thred.climatetray.mnet.MNetDrive;
 import io.github.thred.climatetray.mnet.MNetPreset;
-import io.github.thred.climatetray.util.DomBuilder;
+import io.github.thred.climatetray.util.XmlBuilder;
 
 public class MNetOperateRequest extends AbstractMNetDeviceRequest
 {
@@ -91,7 +91,7 @@ public class MNetOperateRequest extends AbstractMNetDeviceRequest
     }
 
     @Override
-    protected void buildRequestItemContent(DomBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
+    protected void buildRequestItemContent(XmlBuilder builder, MNetDeviceRequestItem item) throws MNetRequestException
     {
         builder.attribute("Ec", item.getEc().getKey());
         builder.attribute("Group", item.getGroup());
@@ -21,4 +21,11 @@ public interface MNetRequest
 
     void execute(URL url, String... additionalProxyExcludes) throws MNetRequestException;
 
+    /**
+     * Cancels the request. If the request is currently executed, the connection will be aborted.
+     */
+    void cancel();
+
+    boolean isCanceled();
+
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet.request;
+
+/**
+ * Thrown if a request got canceled. A canceled request does not indicate a problem with the centralized controller.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetRequestCanceledException extends MNetRequestException
+{
+
+    private static final long serialVersionUID = 2315896432106744826L;
+
+    public MNetRequestCanceledException(String message, Object... args)
+    {
+        super(message, args);
+    }
+
+    public MNetRequestCanceledException(String message, Throwable cause, Object... args)
+    {
+        super(message, cause, args);
+    }
+
+}
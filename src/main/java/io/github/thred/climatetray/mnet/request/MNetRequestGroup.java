@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.mnet.request;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A group of requests, that can be canceled at once. The requests join the group while they are executed. Once the
+ * group is canceled, all requests of the group fail with an {@link MNetRequestCanceledException}.
+ *
+ * @author Manfred Hantschel
+ */
+public class MNetRequestGroup
+{
+
+    private final Set<MNetRequest> requests = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean canceled = false;
+
+    public MNetRequestGroup()
+    {
+        super();
+    }
+
+    /**
+     * Attaches the request to this group.
+     *
+     * @param <REQUEST_TYPE> the type of the request
+     * @param request the request
+     * @return the request
+     */
+    public <REQUEST_TYPE extends AbstractMNetRequest> REQUEST_TYPE attach(REQUEST_TYPE request)
+    {
+        request.setGroup(this);
+
+        return request;
+    }
+
+    protected void register(MNetRequest request)
+    {
+        requests.add(request);
+
+        if (canceled)
+        {
+            request.cancel();
+        }
+    }
+
+    protected void unregister(MNetRequest request)
+    {
+        requests.remove(request);
+    }
+
+    public boolean isCanceled()
+    {
+        return canceled;
+    }
+
+    /**
+     * Cancels all requests in this group, including the ones, that get executed later on.
+     */
+    public void cancel()
+    {
+        canceled = true;
+
+        requests.forEach(MNetRequest::cancel);
+    }
+
+}
@@ -22,7 +22,9 @@ import javax.swing.JList;
 import io.github.thred.climatetray.ClimateTrayImage;
 import io.github.thred.climatetray.ClimateTrayImageState;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
 import io.github.thred.climatetray.mnet.MNetState;
+import io.github.thred.climatetray.util.Utils;
 
 public class MNetDeviceCellRenderer extends DefaultListCellRenderer
 {
@@ -55,7 +57,9 @@ public class MNetDeviceCellRenderer extends DefaultListCellRenderer
 
         setIcon((state != null) ? state.createIcon(imageState, ICON_SIZE)
             : ClimateTrayImage.ICON.getIcon(imageState, ICON_SIZE));
-        setText(device.describeSettings());
+        String circuit = MNetService.describeCircuit(device);
+
+        setText(Utils.combine(" ", device.describeSettings(), Utils.surround("(", circuit, ")")));
         setEnabled(device.isEnabled());
 
         return this;
@@ -24,7 +24,9 @@ import javax.swing.ListCellRenderer;
 import io.github.thred.climatetray.ClimateTrayImage;
 import io.github.thred.climatetray.ClimateTrayImageState;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
 import io.github.thred.climatetray.mnet.MNetState;
+import io.github.thred.climatetray.util.Utils;
 
 public class MNetDeviceCheckBoxCellRenderer implements ListCellRenderer<MNetDevice>
 {
@@ -49,7 +51,9 @@ public class MNetDeviceCheckBoxCellRenderer implements ListCellRenderer<MNetDevi
         checkBox
             .setIcon((state != null) ? state.createIcon(imageState, ICON_SIZE)
                 : ClimateTrayImage.ICON.getIcon(imageState, ICON_SIZE));
-        checkBox.setText(device.describeState());
+        String circuit = MNetService.describeCircuit(device);
+
+        checkBox.setText(Utils.combine(" ", device.describeState(), Utils.surround("(", circuit, ")")));
         checkBox.setSelected(device.isSelected());
         checkBox.setEnabled(device.isEnabled());
 
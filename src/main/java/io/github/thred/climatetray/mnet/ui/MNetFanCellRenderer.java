@@ -15,8 +15,11 @@
 package io.github.thred.climatetray.mnet.ui;
 
 import java.awt.Component;
+import java.util.EnumMap;
+import java.util.Map;
 
 import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
 import javax.swing.JList;
 
 import io.github.thred.climatetray.ClimateTrayImageState;
@@ -27,6 +30,8 @@ public class MNetFanCellRenderer extends DefaultListCellRenderer
 
     private static final long serialVersionUID = -1286708018290981191L;
 
+    private final Map<MNetFan, Icon> icons = new EnumMap<>(MNetFan.class);
+
     public MNetFanCellRenderer()
     {
         super();
@@ -47,7 +52,7 @@ public class MNetFanCellRenderer extends DefaultListCellRenderer
 
         MNetFan fan = (MNetFan) value;
 
-        setIcon(fan.getImage().getIcon(ClimateTrayImageState.NONE, 16));
+        setIcon(icons.computeIfAbsent(fan, key -> key.getImage().getIcon(ClimateTrayImageState.NONE, 16)));
         setText(fan.getLabel());
 
         return this;
@@ -15,8 +15,11 @@
 package io.github.thred.climatetray.mnet.ui;
 
 import java.awt.Component;
+import java.util.EnumMap;
+import java.util.Map;
 
 import javax.swing.DefaultListCellRenderer;
+import javax.swing.Icon;
 import javax.swing.JList;
 
 import io.github.thred.climatetray.ClimateTrayImageState;
@@ -27,6 +30,8 @@ public class MNetModeCellRenderer extends DefaultListCellRenderer
 
     private static final long serialVersionUID = -1286708018290981191L;
 
+    private final Map<MNetMode, Icon> icons = new EnumMap<>(MNetMode.class);
+
     public MNetModeCellRenderer()
     {
         super();
@@ -47,7 +52,7 @@ public class MNetModeCellRenderer extends DefaultListCellRenderer
 
         MNetMode mode = (MNetMode) value;
 
-        setIcon(mode.getImage().getIcon(ClimateTrayImageState.NONE, 16));
+        setIcon(icons.computeIfAbsent(mode, key -> key.getImage().getIcon(ClimateTrayImageState.NONE, 16)));
         setText(mode.getLabel());
 
         return this;
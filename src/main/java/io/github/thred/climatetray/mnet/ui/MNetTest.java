@@ -14,13 +14,14 @@ import io.github.thred.climatetray.ClimateTrayService;
 import io.github.thred.climatetray.mnet.MNetDevice;
 import io.github.thred.climatetray.mnet.MNetDrive;
 import io.github.thred.climatetray.mnet.MNetEc;
+import io.github.thred.climatetray.mnet.MNetService;
 import io.github.thred.climatetray.mnet.MNetUtils;
 import io.github.thred.climatetray.mnet.request.AbstractMNetDeviceRequest;
 import io.github.thred.climatetray.mnet.request.MNetDeviceRequestItem;
 import io.github.thred.climatetray.mnet.request.MNetInfoRequest;
-import io.github.thred.climatetray.mnet.request.MNetMonitorRequest;
 import io.github.thred.climatetray.mnet.request.MNetOperateRequest;
 import io.github.thred.climatetray.mnet.request.MNetRequestException;
+import io.github.thred.climatetray.mnet.request.MNetRequestGroup;
 import io.github.thred.climatetray.util.ExceptionConsumer;
 import io.github.thred.climatetray.util.ProxyType;
 import io.github.thred.climatetray.util.Severity;
@@ -54,6 +55,7 @@ public class MNetTest implements ExceptionConsumer
     private final MessageBuffer messages = new MessageBuffer();
 
     private final MNetDevice device;
+    private final MNetRequestGroup requests = new MNetRequestGroup();
 
     private Step step;
     private State state;
@@ -123,9 +125,13 @@ public class MNetTest implements ExceptionConsumer
     {
         state = State.CANCELED;
 
-        if (step == Step.TOGGLING)
+        if (step != Step.TOGGLING)
         {
-            // undo the toggle operation
+            requests.cancel();
+        }
+        else
+        {
+            // undo the toggle operation (the toggle request is not canceled, the undo needs its result)
             ClimateTrayService.submitTask(() -> {
                 MNetOperateRequest request = new MNetOperateRequest();
                 boolean turnOn = (device.getState().getDrive() == MNetDrive.OFF);
@@ -222,7 +228,7 @@ public class MNetTest implements ExceptionConsumer
             step(Step.CHECK, "Calling %s...", device.describeSettings());
 
             URL url = device.getURL();
-            MNetInfoRequest request = new MNetInfoRequest();
+            MNetInfoRequest request = requests.attach(new MNetInfoRequest());
 
             request.addDevice(device);
 
@@ -290,7 +296,7 @@ public class MNetTest implements ExceptionConsumer
 
                 device.setEc(ec);
 
-                MNetInfoRequest request = new MNetInfoRequest();
+                MNetInfoRequest request = requests.attach(new MNetInfoRequest());
 
                 request.addDevice(device).execute(device.getURL());
                 updateDevice(request, device);
@@ -314,10 +320,7 @@ public class MNetTest implements ExceptionConsumer
             ensureNotCanceled();
             step(Step.INFO, "Requesting current state...");
 
-            MNetMonitorRequest request = new MNetMonitorRequest();
-
-            request.addDevice(device).execute(device.getURL());
-            updateDevice(request, device);
+            updateDevice(MNetService.fetchState(device, requests), device);
 
             if (device.getState().getMode() == null)
             {
@@ -333,7 +336,7 @@ public class MNetTest implements ExceptionConsumer
         ClimateTrayService.submitTask(() -> {
             ensureNotCanceled();
 
-            MNetOperateRequest request = new MNetOperateRequest();
+            MNetOperateRequest request = requests.attach(new MNetOperateRequest());
             boolean turnOn = (device.getState().getDrive() == MNetDrive.OFF);
 
             if (turnOn)
@@ -377,7 +380,7 @@ public class MNetTest implements ExceptionConsumer
         ClimateTrayService.submitTask(() -> {
             ensureNotCanceled();
 
-            MNetOperateRequest request = new MNetOperateRequest();
+            MNetOperateRequest request = requests.attach(new MNetOperateRequest());
             boolean turnOn = (device.getState().getDrive() == MNetDrive.OFF);
 
             if (turnOn)
@@ -428,15 +431,23 @@ public class MNetTest implements ExceptionConsumer
     protected MNetDeviceRequestItem updateDevice(AbstractMNetDeviceRequest request, MNetDevice device)
         throws MNetTestException
     {
-        MNetDeviceRequestItem item = StreamSupport
-            .stream(request.spliterator(), false)
-            .findFirst()
-            .orElseThrow(() -> new MNetTestException(Severity.ERROR,
+        return updateDevice(StreamSupport.stream(request.spliterator(), false).findFirst().orElse(null), device);
+    }
+
+    protected MNetDeviceRequestItem updateDevice(MNetDeviceRequestItem item, MNetDevice device)
+        throws MNetTestException
+    {
+        if (item == null)
+        {
+            throw new MNetTestException(Severity.ERROR,
                 "The centralized controller did not return any air conditioners.\n\n"
                     + "The request hit a server, but it may be the wrong one. "
-                    + "You can check the log for the detailed exception."));
+                    + "You can check the log for the detailed exception.");
+        }
 
-        item.update(device);
+        // the device of the test is not registered, update it without firing state events
+        item.updateProperties(device);
+        device.setState(item.updateState(device, device.getState()));
 
         return item;
     }
@@ -14,18 +14,28 @@
  */
 package io.github.thred.climatetray.ui;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 
+import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.ClimateTrayStateChangeCoalescer;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
 import io.github.thred.climatetray.mnet.ui.MNetDeviceCellRenderer;
 import io.github.thred.climatetray.mnet.ui.MNetDeviceDialogController;
 import io.github.thred.climatetray.ui.AbstractClimateTrayWindowController.Button;
 import io.github.thred.climatetray.util.message.MessageBuffer;
+import io.github.thred.climatetray.util.swing.AdvancedListModel;
 
 public class ClimateTrayDeviceListController extends AbstractClimateTrayListEditController<MNetDevice>
 {
 
+    private ClimateTrayStateChangeCoalescer stateChangeCoalescer = null;
+
     public ClimateTrayDeviceListController()
     {
         super();
@@ -33,6 +43,56 @@ public class ClimateTrayDeviceListController extends AbstractClimateTrayListEdit
         list.setCellRenderer(new MNetDeviceCellRenderer());
     }
 
+    @Override
+    public void refreshWith(List<MNetDevice> model)
+    {
+        if (stateChangeCoalescer == null)
+        {
+            stateChangeCoalescer =
+                ClimateTrayService.createStateChangeCoalescer(events -> refreshStatesWith(listModel, events));
+
+            MNetService.addStateListener(stateChangeCoalescer);
+        }
+
+        super.refreshWith(model);
+    }
+
+    @Override
+    public void dismiss(List<MNetDevice> model)
+    {
+        if (stateChangeCoalescer != null)
+        {
+            MNetService.removeStateListener(stateChangeCoalescer);
+
+            stateChangeCoalescer = null;
+        }
+
+        super.dismiss(model);
+    }
+
+    /**
+     * Updates the copies of the devices in the list with the changed states and repaints only their rows.
+     *
+     * @param listModel the model of the list
+     * @param events the changes of the states
+     */
+    static void refreshStatesWith(AdvancedListModel<MNetDevice> listModel, Collection<MNetStateEvent> events)
+    {
+        for (MNetStateEvent event : events)
+        {
+            for (int i = 0; i < listModel.getSize(); i += 1)
+            {
+                MNetDevice device = listModel.getElementAt(i);
+
+                if (device.getId().equals(event.getDevice().getId()))
+                {
+                    device.setState(event.getState());
+                    listModel.refreshElementAt(i);
+                }
+            }
+        }
+    }
+
     @Override
     protected MNetDevice createElement()
     {
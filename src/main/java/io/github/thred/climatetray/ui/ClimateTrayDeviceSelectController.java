@@ -14,15 +14,22 @@
  */
 package io.github.thred.climatetray.ui;
 
+import java.util.List;
+
 import javax.swing.JPanel;
 
+import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.ClimateTrayStateChangeCoalescer;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
 import io.github.thred.climatetray.mnet.ui.MNetDeviceCheckBoxCellRenderer;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 
 public class ClimateTrayDeviceSelectController extends AbstractClimateTrayListSelectController<MNetDevice>
 {
 
+    private ClimateTrayStateChangeCoalescer stateChangeCoalescer = null;
+
     public ClimateTrayDeviceSelectController()
     {
         super();
@@ -44,6 +51,34 @@ public class ClimateTrayDeviceSelectController extends AbstractClimateTrayListSe
         return view;
     }
 
+    @Override
+    public void refreshWith(List<MNetDevice> model)
+    {
+        if (stateChangeCoalescer == null)
+        {
+            stateChangeCoalescer = ClimateTrayService
+                .createStateChangeCoalescer(
+                    events -> ClimateTrayDeviceListController.refreshStatesWith(listModel, events));
+
+            MNetService.addStateListener(stateChangeCoalescer);
+        }
+
+        super.refreshWith(model);
+    }
+
+    @Override
+    public void dismiss(List<MNetDevice> model)
+    {
+        if (stateChangeCoalescer != null)
+        {
+            MNetService.removeStateListener(stateChangeCoalescer);
+
+            stateChangeCoalescer = null;
+        }
+
+        super.dismiss(model);
+    }
+
     @Override
     public void selected()
     {
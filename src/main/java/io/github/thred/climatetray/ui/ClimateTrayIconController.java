@@ -23,12 +23,16 @@ import java.awt.TrayIcon;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Arrays;
+import java.util.Collection;
 
 import io.github.thred.climatetray.ClimateTrayImage;
 import io.github.thred.climatetray.ClimateTrayImageState;
 import io.github.thred.climatetray.ClimateTrayPreferences;
 import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.ClimateTrayStateChangeCoalescer;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 
 public class ClimateTrayIconController extends AbstractClimateTrayController<ClimateTrayPreferences, TrayIcon>
@@ -40,6 +44,9 @@ public class ClimateTrayIconController extends AbstractClimateTrayController<Cli
     private final TrayIcon view =
         new TrayIcon(ClimateTrayImage.ICON.getImage(ClimateTrayImageState.DEFAULT, TRAY_ICON_SIZE));
 
+    private ClimateTrayStateChangeCoalescer stateChangeCoalescer = null;
+    private MNetDevice activeDevice = null;
+
     public ClimateTrayIconController()
     {
         super();
@@ -87,6 +94,20 @@ public class ClimateTrayIconController extends AbstractClimateTrayController<Cli
         return view;
     }
 
+    @Override
+    public void prepareWith(ClimateTrayPreferences model)
+    {
+        if (stateChangeCoalescer == null)
+        {
+            stateChangeCoalescer =
+                ClimateTrayService.createStateChangeCoalescer(events -> refreshStatesWith(model, events));
+
+            MNetService.addStateListener(stateChangeCoalescer);
+        }
+
+        refreshWith(model);
+    }
+
     @Override
     public void refreshWith(ClimateTrayPreferences model)
     {
@@ -98,31 +119,7 @@ public class ClimateTrayIconController extends AbstractClimateTrayController<Cli
         SystemTray tray = SystemTray.getSystemTray();
         boolean enabled = model.isTrayIconEnabled();
 
-        if (enabled)
-        {
-            MNetDevice activeDevice = model
-                .getDevices()
-                .stream()
-                .filter(device -> (device.isEnabled()) && (device.isSelectedAndWorking()))
-                .findFirst()
-                .orElse(null);
-
-            if (activeDevice != null)
-            {
-                Image image = activeDevice.getState().createImage(ClimateTrayImageState.DEFAULT, TRAY_ICON_SIZE);
-                String toolTip = activeDevice.describeStateAction();
-
-                refreshIconWith(image, toolTip);
-            }
-            else
-            {
-                refreshIconWith(null, null);
-            }
-        }
-        else
-        {
-            refreshIconWith(null, null);
-        }
+        refreshActiveDeviceWith((enabled) ? model.getActiveDevice() : null);
 
         boolean exists = Arrays.stream(tray.getTrayIcons()).filter(trayIcon -> trayIcon == view).count() > 0;
 
@@ -151,6 +148,42 @@ public class ClimateTrayIconController extends AbstractClimateTrayController<Cli
         //}
     }
 
+    /**
+     * Refreshes the icon only, if it shows one of the devices, whose state changed, and the items of these devices in
+     * the popup.
+     *
+     * @param model the model
+     * @param events the changes of the states
+     */
+    public void refreshStatesWith(ClimateTrayPreferences model, Collection<MNetStateEvent> events)
+    {
+        MNetDevice currentActiveDevice = (model.isTrayIconEnabled()) ? model.getActiveDevice() : null;
+
+        if ((currentActiveDevice != activeDevice) || (MNetStateEvent.containsDevice(events, currentActiveDevice)))
+        {
+            refreshActiveDeviceWith(currentActiveDevice);
+        }
+
+        popupController.refreshStatesWith(model, events);
+    }
+
+    protected void refreshActiveDeviceWith(MNetDevice activeDevice)
+    {
+        this.activeDevice = activeDevice;
+
+        if (activeDevice != null)
+        {
+            Image image = activeDevice.getState().createImage(ClimateTrayImageState.DEFAULT, TRAY_ICON_SIZE);
+            String toolTip = activeDevice.describeStateAction();
+
+            refreshIconWith(image, toolTip);
+        }
+        else
+        {
+            refreshIconWith(null, null);
+        }
+    }
+
     protected void refreshIconWith(Image image, String toolTip)
     {
         view
@@ -174,6 +207,13 @@ public class ClimateTrayIconController extends AbstractClimateTrayController<Cli
     @Override
     public void dismiss(ClimateTrayPreferences model)
     {
+        if (stateChangeCoalescer != null)
+        {
+            MNetService.removeStateListener(stateChangeCoalescer);
+
+            stateChangeCoalescer = null;
+        }
+
         SystemTray.getSystemTray().remove(view);
 
         popupController.dismiss(model);
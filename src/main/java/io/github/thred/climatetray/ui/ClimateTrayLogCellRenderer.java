@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.ui;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JList;
+
+import io.github.thred.climatetray.ui.ClimateTrayLogListModel.Line;
+
+public class ClimateTrayLogCellRenderer extends DefaultListCellRenderer
+{
+
+    private static final long serialVersionUID = -1487512384010236571L;
+
+    public static final Font FONT = new Font(Font.MONOSPACED, Font.BOLD, 12);
+
+    private static final Color ERROR_COLOR = new Color(0xc83737);
+    private static final Color WARN_COLOR = new Color(0xffcc00);
+    private static final Color INFO_COLOR = new Color(0xffffff);
+    private static final Color DEBUG_COLOR = new Color(0xb3b3b3);
+
+    public ClimateTrayLogCellRenderer()
+    {
+        super();
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+        boolean cellHasFocus)
+    {
+        super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+
+        setFont(FONT);
+        setBorder(BorderFactory.createEmptyBorder());
+
+        if (value == null)
+        {
+            setText("");
+
+            return this;
+        }
+
+        Line line = (Line) value;
+
+        setText(line.getText());
+
+        if (!isSelected)
+        {
+            switch (line.getMessage().getSeverity())
+            {
+                case ERROR:
+                    setForeground(ERROR_COLOR);
+                    break;
+                case WARN:
+                    setForeground(WARN_COLOR);
+                    break;
+                case INFO:
+                    setForeground(INFO_COLOR);
+                    break;
+                case DEBUG:
+                    setForeground(DEBUG_COLOR);
+                    break;
+                default:
+                    throw new UnsupportedOperationException(
+                        "Severity not supported: " + line.getMessage().getSeverity());
+            }
+        }
+
+        return this;
+    }
+
+}
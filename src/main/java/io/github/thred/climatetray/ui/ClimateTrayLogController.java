@@ -14,83 +14,66 @@
  */
 package io.github.thred.climatetray.ui;
 
-import static io.github.thred.climatetray.ClimateTray.*;
-
 import java.awt.Color;
-import java.awt.Dimension;
-import java.awt.Font;
 
-import javax.swing.JTextPane;
-import javax.swing.text.BadLocationException;
-import javax.swing.text.Style;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyleContext;
-import javax.swing.text.StyledDocument;
+import javax.swing.JList;
 
+import io.github.thred.climatetray.ClimateTrayRefreshCoalescer;
+import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.ui.ClimateTrayLogListModel.Line;
+import io.github.thred.climatetray.util.Severity;
 import io.github.thred.climatetray.util.message.Message;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 import io.github.thred.climatetray.util.message.MessageListener;
 
-public class ClimateTrayLogController extends AbstractClimateTrayController<MessageBuffer, JTextPane>
+/**
+ * Shows the messages of a buffer. New messages are collected and added to the view a few times per second.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayLogController extends AbstractClimateTrayController<MessageBuffer, JList<Line>>
     implements MessageListener
 {
 
-    private final Style errorStyle;
-    private final Style warnStyle;
-    private final Style infoStyle;
-    private final Style debugStyle;
+    private static final int MAX_REFRESHES_PER_SECOND = 10;
+
+    private final ClimateTrayLogListModel listModel = new ClimateTrayLogListModel();
+
+    private MessageBuffer model = null;
+    private ClimateTrayRefreshCoalescer refreshCoalescer = null;
 
     public ClimateTrayLogController()
     {
         super();
-
-        StyleContext styleContext = new StyleContext();
-        Style defaultStyle = styleContext.getStyle(StyleContext.DEFAULT_STYLE);
-        Style mainStyle = styleContext.addStyle("main", defaultStyle);
-
-        StyleConstants.setFontFamily(mainStyle, Font.MONOSPACED);
-        StyleConstants.setFontSize(mainStyle, 12);
-        StyleConstants.setBold(mainStyle, true);
-
-        errorStyle = styleContext.addStyle("error", mainStyle);
-
-        StyleConstants.setForeground(errorStyle, new Color(0xc83737));
-
-        warnStyle = styleContext.addStyle("warn", mainStyle);
-
-        StyleConstants.setForeground(warnStyle, new Color(0xffcc00));
-
-        infoStyle = styleContext.addStyle("info", mainStyle);
-
-        StyleConstants.setForeground(infoStyle, new Color(0xffffff));
-
-        debugStyle = styleContext.addStyle("debug", mainStyle);
-
-        StyleConstants.setForeground(debugStyle, new Color(0xb3b3b3));
-        StyleConstants.setFontSize(debugStyle, 10);
     }
 
     @Override
-    protected JTextPane createView()
+    protected JList<Line> createView()
     {
-        JTextPane view = new JTextPane();
+        JList<Line> view = new JList<>(listModel);
 
-        view.setEditable(false);
-        view.setPreferredSize(new Dimension(800, 450));
+        view.setCellRenderer(new ClimateTrayLogCellRenderer());
         view.setBackground(Color.BLACK);
         view.setForeground(Color.WHITE);
 
+        // fixed cell sizes, otherwise the list would measure all lines
+        view.setPrototypeCellValue(new Line(Message.debug(""), "00:00:00.000 Prototype"));
+
         return view;
     }
 
     @Override
     public void refreshWith(MessageBuffer model)
     {
-        for (Message message : model)
+        this.model = model;
+
+        if (refreshCoalescer == null)
         {
-            messageAdded(model, message);
+            refreshCoalescer = ClimateTrayService.createRefreshCoalescer(MAX_REFRESHES_PER_SECOND, this::refresh);
         }
 
+        refresh();
+
         model.addMessageListener(this);
     }
 
@@ -112,68 +95,64 @@ public class ClimateTrayLogController extends AbstractClimateTrayController<Mess
         model.removeMessageListener(this);
     }
 
-    @Override
-    public void messageAdded(MessageBuffer messageBuffer, Message message)
+    /**
+     * Filters the lines. Must be called on the event dispatch thread.
+     *
+     * @param threshold the minimum severity of the messages
+     * @param text the text, the messages must contain, may be null or empty
+     */
+    public void setFilter(Severity threshold, String text)
+    {
+        listModel.setFilter(threshold, text);
+
+        refresh();
+    }
+
+    /**
+     * Adds the new messages to the view, and removes the old ones. Must be called on the event dispatch thread.
+     */
+    public void refresh()
     {
-        Style style;
+        MessageBuffer model = this.model;
 
-        switch (message.getSeverity())
+        if (model == null)
         {
-            case DEBUG:
-                style = debugStyle;
-                break;
-            case ERROR:
-                style = errorStyle;
-                break;
-            case INFO:
-                style = infoStyle;
-                break;
-            case WARN:
-                style = warnStyle;
-                break;
-            default:
-                throw new UnsupportedOperationException("Severity not supported: " + message.getSeverity());
+            return;
         }
 
-        append(debugStyle, String.format("%1$tH:%1$tM:%1$tS.%1$tL ", message.getTimestamp()));
-        append(style, message.getCombinedMessage() + "\n");
-    }
+        JList<Line> view = getView();
+        boolean scrolledToEnd = view.getLastVisibleIndex() >= listModel.getSize() - 1;
 
-    @Override
-    public void messagesCleared(MessageBuffer messageBuffer)
-    {
-        StyledDocument document = getView().getStyledDocument();
+        listModel.update(model.snapshot());
 
-        try
+        int width = view.getFontMetrics(ClimateTrayLogCellRenderer.FONT).charWidth('m') * listModel.getMaximumLength();
+
+        if (width > view.getFixedCellWidth())
         {
-            document.remove(0, document.getLength());
+            view.setFixedCellWidth(width);
         }
-        catch (BadLocationException e)
+
+        if ((scrolledToEnd) && (listModel.getSize() > 0))
         {
-            LOG.error("Failed to clear text. It will get funny now...", e);
+            view.ensureIndexIsVisible(listModel.getSize() - 1);
         }
     }
 
     @Override
-    public void messageRemoved(MessageBuffer messageBuffer, Message message)
+    public void messageAdded(MessageBuffer messageBuffer, Message message)
     {
-        // intentionally left blank
+        refreshCoalescer.requestRefresh();
     }
 
-    public void append(Style style, String text)
+    @Override
+    public void messagesCleared(MessageBuffer messageBuffer)
     {
-        JTextPane view = getView();
-        StyledDocument document = view.getStyledDocument();
-
-        try
-        {
-            document.insertString(document.getLength(), text, style);
-        }
-        catch (BadLocationException e)
-        {
-            LOG.error("Failed to add text. It will get funny now...", e);
-        }
+        refreshCoalescer.requestRefresh();
+    }
 
-        view.setCaretPosition(document.getLength());
+    @Override
+    public void messageRemoved(MessageBuffer messageBuffer, Message message)
+    {
+        // the next refresh removes the lines
     }
 }
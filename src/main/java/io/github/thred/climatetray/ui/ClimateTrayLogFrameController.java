@@ -16,13 +16,19 @@ package io.github.thred.climatetray.ui;
 
 import static io.github.thred.climatetray.ClimateTray.*;
 
+import java.awt.Dimension;
 import java.awt.Window;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JComponent;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
+import io.github.thred.climatetray.ClimateTrayService;
 import io.github.thred.climatetray.util.Severity;
 import io.github.thred.climatetray.util.message.Message;
 import io.github.thred.climatetray.util.message.MessageBuffer;
@@ -35,12 +41,39 @@ public class ClimateTrayLogFrameController
 {
 
     protected final JButton clearButton = SwingUtils.createButton("Clear", (e) -> clear());
+    protected final JButton statisticsButton =
+        SwingUtils.createButton("Statistics", (e) -> ClimateTrayService.logStatistics(Severity.INFO));
+    protected final JComboBox<Severity> severityBox = SwingUtils.createComboBox(Severity.values(), (e) -> filter());
+    protected final JTextField filterField = SwingUtils.createTextField("", 16, (e) -> filter());
 
     public ClimateTrayLogFrameController(Window owner)
     {
         super(owner, new ClimateTrayLogController(), Button.CLOSE);
 
         setTitle("Log");
+
+        severityBox.setSelectedItem(Severity.DEBUG);
+
+        filterField.getDocument().addDocumentListener(new DocumentListener()
+        {
+            @Override
+            public void removeUpdate(DocumentEvent e)
+            {
+                filter();
+            }
+
+            @Override
+            public void insertUpdate(DocumentEvent e)
+            {
+                filter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e)
+            {
+                filter();
+            }
+        });
     }
 
     @Override
@@ -49,6 +82,7 @@ public class ClimateTrayLogFrameController
         JScrollPane scrollPane = new JScrollPane(view);
 
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        scrollPane.setPreferredSize(new Dimension(800, 450));
 
         return scrollPane;
     }
@@ -59,6 +93,9 @@ public class ClimateTrayLogFrameController
         FooterPanel panel = (FooterPanel) super.createBottomPanel(buttons);
 
         panel.left(clearButton);
+        panel.left(statisticsButton);
+        panel.left(SwingUtils.createLabel("Severity:", severityBox), severityBox);
+        panel.left(SwingUtils.createLabel("Filter:", filterField), filterField);
 
         //        panel.left(SwingUtils.createButton("Test", (e) -> {
         //            Severity severity = Severity.values()[(int) (Math.random() * Severity.values().length)];
@@ -93,6 +130,11 @@ public class ClimateTrayLogFrameController
         getModel().clear();
     }
 
+    public void filter()
+    {
+        controller.setFilter((Severity) severityBox.getSelectedItem(), filterField.getText());
+    }
+
     @Override
     public void messageAdded(MessageBuffer messageBuffer, Message message)
     {
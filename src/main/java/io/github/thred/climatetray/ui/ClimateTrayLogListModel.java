@@ -0,0 +1,255 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.swing.AbstractListModel;
+
+import io.github.thred.climatetray.util.Severity;
+import io.github.thred.climatetray.util.message.Message;
+
+/**
+ * The lines of the log. Each message is split into lines, thus the list can use a fixed cell height and renders only
+ * the visible lines. The model gets updated with snapshots of the message buffer: lines of removed messages are
+ * dropped at the start, lines of new messages are appended at the end. Only a change of the filter recreates all
+ * lines.
+ *
+ * @author Manfred Hantschel
+ */
+public class ClimateTrayLogListModel extends AbstractListModel<ClimateTrayLogListModel.Line>
+{
+
+    private static final long serialVersionUID = 2740150519612442853L;
+
+    private static final String TAB = "    ";
+
+    /**
+     * The width of the timestamp (HH:mm:ss.SSS) and a space.
+     */
+    private static final String INDENT = "             ";
+
+    public static class Line
+    {
+        private final Message message;
+        private final String text;
+
+        public Line(Message message, String text)
+        {
+            super();
+
+            this.message = message;
+            this.text = text;
+        }
+
+        public Message getMessage()
+        {
+            return message;
+        }
+
+        public String getText()
+        {
+            return text;
+        }
+
+        @Override
+        public String toString()
+        {
+            return text;
+        }
+    }
+
+    private final List<Line> lines = new ArrayList<>();
+    private final Map<Message, String[]> texts = new IdentityHashMap<>();
+
+    private Severity threshold = Severity.DEBUG;
+    private Pattern pattern = null;
+    private Message lastMessage = null;
+    private int maximumLength = 0;
+
+    public ClimateTrayLogListModel()
+    {
+        super();
+    }
+
+    public Severity getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Sets the filter. The lines will be recreated with the next update.
+     *
+     * @param threshold the minimum severity of the messages
+     * @param text the text, the messages must contain (ignoring the case), may be null or empty
+     */
+    public void setFilter(Severity threshold, String text)
+    {
+        this.threshold = threshold;
+
+        pattern = ((text == null) || (text.trim().length() == 0)) ? null
+            : Pattern.compile(Pattern.quote(text.trim()), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        lastMessage = null;
+    }
+
+    /**
+     * Returns the length of the longest line, that has ever been added. Used for the width of the cells.
+     *
+     * @return the length in characters
+     */
+    public int getMaximumLength()
+    {
+        return maximumLength;
+    }
+
+    /**
+     * Updates the lines with the snapshot of the messages. Appends the messages following the last message of the
+     * previous snapshot. This relies on {@link io.github.thred.climatetray.util.message.MessageBuffer#snapshot()} never
+     * leaving out a message, that is followed by a message included in the snapshot.
+     *
+     * @param snapshot the messages, the oldest first
+     */
+    public void update(List<Message> snapshot)
+    {
+        Set<Message> retainedMessages = Collections.newSetFromMap(new IdentityHashMap<>(snapshot.size()));
+
+        retainedMessages.addAll(snapshot);
+        texts.keySet().retainAll(retainedMessages);
+
+        int startIndex = (lastMessage != null) ? lastIndexOf(snapshot, lastMessage) + 1 : 0;
+
+        if (startIndex <= 0)
+        {
+            // the filter changed, the buffer has been cleared or all shown messages are gone
+            removeLines(lines.size());
+        }
+        else
+        {
+            int count = 0;
+
+            while ((count < lines.size()) && (!retainedMessages.contains(lines.get(count).getMessage())))
+            {
+                count += 1;
+            }
+
+            removeLines(count);
+        }
+
+        int firstIndex = lines.size();
+
+        for (int i = startIndex; i < snapshot.size(); i += 1)
+        {
+            Message message = snapshot.get(i);
+
+            if (message.getSeverity().isCoveredBy(threshold))
+            {
+                addLines(message, texts.computeIfAbsent(message, ClimateTrayLogListModel::split));
+            }
+        }
+
+        if (lines.size() > firstIndex)
+        {
+            fireIntervalAdded(this, firstIndex, lines.size() - 1);
+        }
+
+        lastMessage = (snapshot.isEmpty()) ? null : snapshot.get(snapshot.size() - 1);
+    }
+
+    protected void removeLines(int count)
+    {
+        if (count <= 0)
+        {
+            return;
+        }
+
+        lines.subList(0, count).clear();
+
+        fireIntervalRemoved(this, 0, count - 1);
+    }
+
+    protected void addLines(Message message, String[] texts)
+    {
+        if ((pattern != null) && (!matches(texts)))
+        {
+            return;
+        }
+
+        for (int i = 0; i < texts.length; i += 1)
+        {
+            String text = ((i == 0) ? message.describeTimestamp() + " " : INDENT) + texts[i];
+
+            maximumLength = Math.max(maximumLength, text.length());
+
+            lines.add(new Line(message, text));
+        }
+    }
+
+    protected boolean matches(String[] texts)
+    {
+        for (String text : texts)
+        {
+            if (pattern.matcher(text).find())
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return lines.size();
+    }
+
+    @Override
+    public Line getElementAt(int index)
+    {
+        return lines.get(index);
+    }
+
+    private static String[] split(Message message)
+    {
+        String text = message.getCombinedMessage();
+
+        if (text.indexOf('\t') >= 0)
+        {
+            text = text.replace("\t", TAB);
+        }
+
+        return text.split("\r?\n");
+    }
+
+    private static int lastIndexOf(List<Message> messages, Message message)
+    {
+        for (int i = messages.size() - 1; i >= 0; i -= 1)
+        {
+            if (messages.get(i) == message)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+}
@@ -22,6 +22,7 @@ import java.awt.Frame;
 import java.awt.MouseInfo;
 import java.awt.Point;
 import java.awt.Window;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -42,6 +43,7 @@ import io.github.thred.climatetray.ClimateTrayPreferences;
 import io.github.thred.climatetray.ClimateTrayService;
 import io.github.thred.climatetray.mnet.MNetDevice;
 import io.github.thred.climatetray.mnet.MNetPreset;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 import io.github.thred.climatetray.util.swing.TitlePanel;
 
@@ -66,6 +68,7 @@ public class ClimateTrayPopupController extends AbstractClimateTrayController<Cl
     private final Map<String, Component> dynamicItems = new HashMap<>();
 
     private JDialog hiddenDialogForFocusManagement;
+    private MNetDevice activeDevice = null;
 
     public ClimateTrayPopupController()
     {
@@ -191,13 +194,37 @@ public class ClimateTrayPopupController extends AbstractClimateTrayController<Cl
     {
         refreshPresetsWith(model, model.isAnyDeviceSelected());
         refreshDevicesWith(model);
+        refreshTitleWith(model.getActiveDevice());
+    }
+
+    /**
+     * Refreshes only the items of the devices, whose state changed, and the title, if it shows one of these devices.
+     *
+     * @param model the model
+     * @param events the changes of the states
+     */
+    public void refreshStatesWith(ClimateTrayPreferences model, Collection<MNetStateEvent> events)
+    {
+        events.forEach(event -> {
+            JMenuItem item = (JMenuItem) dynamicItems.get(event.getDevice().getId().toString());
+
+            if (item != null)
+            {
+                refreshDeviceWith(item, event.getDevice());
+            }
+        });
 
-        MNetDevice activeDevice = model
-            .getDevices()
-            .stream()
-            .filter(device -> (device.isEnabled()) && (device.isSelectedAndWorking()))
-            .findFirst()
-            .orElse(null);
+        MNetDevice currentActiveDevice = model.getActiveDevice();
+
+        if ((currentActiveDevice != activeDevice) || (MNetStateEvent.containsDevice(events, currentActiveDevice)))
+        {
+            refreshTitleWith(currentActiveDevice);
+        }
+    }
+
+    protected void refreshTitleWith(MNetDevice activeDevice)
+    {
+        this.activeDevice = activeDevice;
 
         if (activeDevice != null)
         {
@@ -210,7 +237,6 @@ public class ClimateTrayPopupController extends AbstractClimateTrayController<Cl
         {
             titlePanel.setDescription(null, "Simple control utility for A/Cs");
         }
-
     }
 
     protected void refreshPresetsWith(ClimateTrayPreferences model, boolean enabled)
@@ -27,6 +27,7 @@ import javax.swing.JSpinner;
 import javax.swing.SpinnerNumberModel;
 
 import io.github.thred.climatetray.ClimateTrayPreferences;
+import io.github.thred.climatetray.mnet.MNetPollEngine;
 import io.github.thred.climatetray.util.TemperatureUnit;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 import io.github.thred.climatetray.util.swing.GBC;
@@ -38,6 +39,12 @@ public class ClimateTrayPreferencesController extends AbstractClimateTrayControl
 
     private final JSpinner updatePeriodInSecondsSpinner =
         monitor(createSpinner(new SpinnerNumberModel(60, 30, 60 * 60, 30)));
+    private final JSpinner minUpdatePeriodInSecondsSpinner =
+        monitor(createSpinner(new SpinnerNumberModel(10, 5, 5 * 60, 5)));
+    private final JSpinner maxUpdatePeriodInSecondsSpinner =
+        monitor(createSpinner(new SpinnerNumberModel(600, 60, 60 * 60, 60)));
+    private final JSpinner maxRequestsPerControllerSpinner =
+        monitor(createSpinner(new SpinnerNumberModel(2, 1, MNetPollEngine.MAX_REQUESTS_PER_CONTROLLER, 1)));
     private final JComboBox<TemperatureUnit> temperatureUnitBox = monitor(createComboBox(TemperatureUnit.values()));
     private final JCheckBox versionCheckEnabledBox = monitor(createCheckBox("Check for version updates after startup"));
 
@@ -54,15 +61,31 @@ public class ClimateTrayPreferencesController extends AbstractClimateTrayControl
         view.setOpaque(false);
 
         updatePeriodInSecondsSpinner.setEditor(new JSpinner.NumberEditor(updatePeriodInSecondsSpinner, "0"));
+        minUpdatePeriodInSecondsSpinner.setEditor(new JSpinner.NumberEditor(minUpdatePeriodInSecondsSpinner, "0"));
+        maxUpdatePeriodInSecondsSpinner.setEditor(new JSpinner.NumberEditor(maxUpdatePeriodInSecondsSpinner, "0"));
+        maxRequestsPerControllerSpinner.setEditor(new JSpinner.NumberEditor(maxRequestsPerControllerSpinner, "0"));
+        maxRequestsPerControllerSpinner
+            .setToolTipText(String
+                .format("At most %d requests are sent to one centralized controller at the same time.",
+                    MNetPollEngine.MAX_REQUESTS_PER_CONTROLLER));
         temperatureUnitBox.addActionListener((e) -> refresh());
 
         JPanel deviceListView = deviceListController.getView();
 
-        GBC gbc = new GBC(2, 5);
+        GBC gbc = new GBC(2, 8);
 
         view.add(createLabel("Update Period in Seconds:", updatePeriodInSecondsSpinner), gbc);
         view.add(updatePeriodInSecondsSpinner, gbc.next());
 
+        view.add(createLabel("Minimal Update Period in Seconds:", minUpdatePeriodInSecondsSpinner), gbc.next());
+        view.add(minUpdatePeriodInSecondsSpinner, gbc.next());
+
+        view.add(createLabel("Maximal Update Period in Seconds:", maxUpdatePeriodInSecondsSpinner), gbc.next());
+        view.add(maxUpdatePeriodInSecondsSpinner, gbc.next());
+
+        view.add(createLabel("Parallel Requests per Controller:", maxRequestsPerControllerSpinner), gbc.next());
+        view.add(maxRequestsPerControllerSpinner, gbc.next());
+
         view.add(createLabel("Unit of Temperature:", temperatureUnitBox), gbc.next());
         view.add(temperatureUnitBox, gbc.next());
 
@@ -79,6 +102,10 @@ public class ClimateTrayPreferencesController extends AbstractClimateTrayControl
     public void refreshWith(ClimateTrayPreferences model)
     {
         updatePeriodInSecondsSpinner.setValue(model.getUpdatePeriodInSeconds());
+        minUpdatePeriodInSecondsSpinner.setValue(model.getMinUpdatePeriodInSeconds());
+        maxUpdatePeriodInSecondsSpinner.setValue(model.getMaxUpdatePeriodInSeconds());
+        maxRequestsPerControllerSpinner
+            .setValue(Math.min(model.getMaxRequestsPerController(), MNetPollEngine.MAX_REQUESTS_PER_CONTROLLER));
         temperatureUnitBox.setSelectedItem(model.getTemperatureUnit());
         versionCheckEnabledBox.setSelected(model.isVersionCheckEnabled());
 
@@ -88,6 +115,16 @@ public class ClimateTrayPreferencesController extends AbstractClimateTrayControl
     @Override
     public void modified(MessageBuffer messageBuffer)
     {
+        int minUpdatePeriodInSeconds = ((Number) minUpdatePeriodInSecondsSpinner.getValue()).intValue();
+        int maxUpdatePeriodInSeconds = ((Number) maxUpdatePeriodInSecondsSpinner.getValue()).intValue();
+
+        if (minUpdatePeriodInSeconds > maxUpdatePeriodInSeconds)
+        {
+            messageBuffer
+                .error("The field \"Minimal Update Period in Seconds\" is greater than the field "
+                    + "\"Maximal Update Period in Seconds\".");
+        }
+
         deviceListController.modified(messageBuffer);
     }
 
@@ -95,6 +132,9 @@ public class ClimateTrayPreferencesController extends AbstractClimateTrayControl
     public void applyTo(ClimateTrayPreferences model)
     {
         model.setUpdatePeriodInSeconds(((Number) updatePeriodInSecondsSpinner.getValue()).intValue());
+        model.setMinUpdatePeriodInSeconds(((Number) minUpdatePeriodInSecondsSpinner.getValue()).intValue());
+        model.setMaxUpdatePeriodInSeconds(((Number) maxUpdatePeriodInSecondsSpinner.getValue()).intValue());
+        model.setMaxRequestsPerController(((Number) maxRequestsPerControllerSpinner.getValue()).intValue());
         model.setTemperatureUnit((TemperatureUnit) temperatureUnitBox.getSelectedItem());
         model.setVersionCheckEnabled(versionCheckEnabledBox.isSelected());
 
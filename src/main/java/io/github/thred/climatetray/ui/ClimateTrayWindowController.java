@@ -23,6 +23,7 @@ import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.util.Collection;
 
 import javax.swing.BorderFactory;
 import javax.swing.JFrame;
@@ -36,8 +37,11 @@ import io.github.thred.climatetray.ClimateTrayImage;
 import io.github.thred.climatetray.ClimateTrayImageState;
 import io.github.thred.climatetray.ClimateTrayPreferences;
 import io.github.thred.climatetray.ClimateTrayService;
+import io.github.thred.climatetray.ClimateTrayStateChangeCoalescer;
 import io.github.thred.climatetray.mnet.MNetDevice;
+import io.github.thred.climatetray.mnet.MNetService;
 import io.github.thred.climatetray.mnet.MNetState;
+import io.github.thred.climatetray.mnet.MNetStateEvent;
 import io.github.thred.climatetray.util.message.MessageBuffer;
 import io.github.thred.climatetray.util.swing.SwingUtils;
 
@@ -54,6 +58,8 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
     private final JLabel settings;
 
     private Point dragging = null;
+    private ClimateTrayStateChangeCoalescer stateChangeCoalescer = null;
+    private MNetDevice activeDevice = null;
 
     public ClimateTrayWindowController()
     {
@@ -156,6 +162,14 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
     @Override
     public void prepareWith(ClimateTrayPreferences model)
     {
+        if (stateChangeCoalescer == null)
+        {
+            stateChangeCoalescer =
+                ClimateTrayService.createStateChangeCoalescer(events -> refreshStatesWith(model, events));
+
+            MNetService.addStateListener(stateChangeCoalescer);
+        }
+
         super.prepareWith(model);
 
         SwingUtilities.invokeLater(() -> {
@@ -167,12 +181,36 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
     @Override
     public void refreshWith(ClimateTrayPreferences model)
     {
-        MNetDevice activeDevice = model
-            .getDevices()
-            .stream()
-            .filter(device -> (device.isEnabled()) && (device.isSelectedAndWorking()))
-            .findFirst()
-            .orElse(null);
+        refreshActiveDeviceWith(model.getActiveDevice());
+
+        //if (popupController.getView().isVisible())
+        //{
+        popupController.refreshWith(model);
+        //}
+    }
+
+    /**
+     * Refreshes the window only, if it shows one of the devices, whose state changed, and the items of these devices in
+     * the popup.
+     *
+     * @param model the model
+     * @param events the changes of the states
+     */
+    public void refreshStatesWith(ClimateTrayPreferences model, Collection<MNetStateEvent> events)
+    {
+        MNetDevice currentActiveDevice = model.getActiveDevice();
+
+        if ((currentActiveDevice != activeDevice) || (MNetStateEvent.containsDevice(events, currentActiveDevice)))
+        {
+            refreshActiveDeviceWith(currentActiveDevice);
+        }
+
+        popupController.refreshStatesWith(model, events);
+    }
+
+    protected void refreshActiveDeviceWith(MNetDevice activeDevice)
+    {
+        this.activeDevice = activeDevice;
 
         if (activeDevice != null)
         {
@@ -180,7 +218,7 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
 
             view.setIconImages(state.createImages(ClimateTrayImageState.DEFAULT, 64, 48, 32, 24, 16));
             icon.setIcon(state.createIcon(ClimateTrayImageState.DEFAULT, ICON_SIZE));
-            text.setText(activeDevice.getState().describeActionShort());
+            text.setText(state.describeActionShort());
         }
         else
         {
@@ -189,11 +227,6 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
             text.setText("Climate Tray");
         }
 
-        //if (popupController.getView().isVisible())
-        //{
-        popupController.refreshWith(model);
-        //}
-
         view.revalidate();
     }
 
@@ -212,6 +245,13 @@ public class ClimateTrayWindowController extends AbstractClimateTrayController<C
     @Override
     public void dismiss(ClimateTrayPreferences model)
     {
+        if (stateChangeCoalescer != null)
+        {
+            MNetService.removeStateListener(stateChangeCoalescer);
+
+            stateChangeCoalescer = null;
+        }
+
         view.setVisible(false);
 
         popupController.dismiss(model);
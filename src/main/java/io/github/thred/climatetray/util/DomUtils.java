@@ -23,7 +23,9 @@ import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -80,6 +82,20 @@ public final class DomUtils
         }
     }
 
+    private static final int MAX_X_PATH_EXPRESSIONS = 64;
+
+    private static final ThreadLocal<Map<String, XPathExpression>> X_PATH_EXPRESSIONS =
+        ThreadLocal.withInitial(() -> new LinkedHashMap<String, XPathExpression>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 2916405375528310846L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest)
+            {
+                return size() > MAX_X_PATH_EXPRESSIONS;
+            }
+        });
+
     private DomUtils()
     {
         super();
@@ -397,19 +413,32 @@ public final class DomUtils
     }
 
     /**
-     * Creates an xPath expression
+     * Creates an xPath expression. The compiled expressions are cached per thread, because they are not thread-safe.
+     * Each thread keeps the most recently used expressions only.
      *
      * @param xPath the xPath
      * @return the expression
      */
     public static XPathExpression xPath(String xPath)
     {
+        Map<String, XPathExpression> expressions = X_PATH_EXPRESSIONS.get();
+        XPathExpression expression = expressions.get(xPath);
+
+        if (expression != null)
+        {
+            return expression;
+        }
+
         XPathFactory xPathFactory = XPathFactory.newInstance();
         XPath xPathInstance = xPathFactory.newXPath();
 
         try
         {
-            return xPathInstance.compile(xPath);
+            expression = xPathInstance.compile(xPath);
+
+            expressions.put(xPath, expression);
+
+            return expression;
         }
         catch (XPathExpressionException e)
         {
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Utility class to quickly write XML without building a DOM. Each element starts on a new line, indented by 4
+ * spaces.
+ *
+ * @author Manfred Hantschel
+ */
+public class XmlBuilder
+{
+
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
+
+    protected final StringBuilder builder = new StringBuilder(256);
+    protected final Deque<String> openElements = new ArrayDeque<>();
+
+    /**
+     * True, if the start tag of the active element is not closed, yet
+     */
+    protected boolean startTagOpen = false;
+
+    /**
+     * True, if the active element contains text
+     */
+    protected boolean textContent = false;
+
+    public XmlBuilder()
+    {
+        super();
+
+        builder.append(DECLARATION);
+    }
+
+    /**
+     * Begins a new element and adds it at the current position
+     *
+     * @param name the name of the element
+     * @return the XML builder instance
+     */
+    public XmlBuilder begin(String name)
+    {
+        closeStartTag();
+        newLine(openElements.size());
+
+        builder.append('<').append(name);
+
+        openElements.push(name);
+        startTagOpen = true;
+        textContent = false;
+
+        return this;
+    }
+
+    /**
+     * Adds an attribute to the current element
+     *
+     * @param name the name of the attribute
+     * @param value the value of the attribute
+     * @return the XML builder instance
+     * @throws IllegalStateException if the start tag of the element has already been closed
+     */
+    public XmlBuilder attribute(String name, Object value) throws IllegalStateException
+    {
+        if (!startTagOpen)
+        {
+            throw new IllegalStateException("No open start tag for attribute: " + name);
+        }
+
+        if (value != null)
+        {
+            builder.append(' ').append(name).append("=\"");
+
+            escape(String.valueOf(value));
+
+            builder.append('"');
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds text to the current element
+     *
+     * @param text the text
+     * @return the XML builder instance
+     */
+    public XmlBuilder text(Object text)
+    {
+        if (text != null)
+        {
+            closeStartTag();
+            escape(String.valueOf(text));
+
+            textContent = true;
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds an empty element with the specified name
+     *
+     * @param name the name
+     * @return the XML builder instance
+     */
+    public XmlBuilder element(String name)
+    {
+        begin(name);
+        end();
+
+        return this;
+    }
+
+    /**
+     * Adds an element with the specified name that contains the specified text
+     *
+     * @param name the name
+     * @param text the text
+     * @return the XML builder instance
+     */
+    public XmlBuilder element(String name, Object text)
+    {
+        begin(name);
+        text(text);
+        end();
+
+        return this;
+    }
+
+    /**
+     * Ends the current element
+     *
+     * @return the XML builder instance
+     * @throws IllegalStateException if there is no open element
+     */
+    public XmlBuilder end() throws IllegalStateException
+    {
+        if (openElements.isEmpty())
+        {
+            throw new IllegalStateException("No open element");
+        }
+
+        String name = openElements.pop();
+
+        if (startTagOpen)
+        {
+            builder.append("/>");
+
+            startTagOpen = false;
+        }
+        else
+        {
+            if (!textContent)
+            {
+                newLine(openElements.size());
+            }
+
+            builder.append("</").append(name).append('>');
+        }
+
+        textContent = false;
+
+        return this;
+    }
+
+    /**
+     * Returns the XML encoded with UTF-8
+     *
+     * @return the bytes
+     * @throws IllegalStateException if there are still open elements
+     */
+    public byte[] toByteArray() throws IllegalStateException
+    {
+        return toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the XML as string
+     *
+     * @return the XML
+     * @throws IllegalStateException if there are still open elements
+     */
+    @Override
+    public String toString() throws IllegalStateException
+    {
+        if (!openElements.isEmpty())
+        {
+            throw new IllegalStateException("Unclosed element: " + openElements.peek());
+        }
+
+        return builder.toString();
+    }
+
+    protected void closeStartTag()
+    {
+        if (startTagOpen)
+        {
+            builder.append('>');
+
+            startTagOpen = false;
+        }
+    }
+
+    protected void newLine(int depth)
+    {
+        builder.append('\n');
+
+        for (int i = 0; i < depth; i += 1)
+        {
+            builder.append("    ");
+        }
+    }
+
+    protected void escape(String value)
+    {
+        for (int i = 0; i < value.length(); i += 1)
+        {
+            char ch = value.charAt(i);
+
+            switch (ch)
+            {
+                case '<':
+                    builder.append("&lt;");
+                    break;
+
+                case '>':
+                    builder.append("&gt;");
+                    break;
+
+                case '&':
+                    builder.append("&amp;");
+                    break;
+
+                case '"':
+                    builder.append("&quot;");
+                    break;
+
+                case '\'':
+                    builder.append("&apos;");
+                    break;
+
+                default:
+                    builder.append(ch);
+                    break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util.message;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.github.thred.climatetray.util.Severity;
+
+/**
+ * Writes the messages of a buffer asynchronously. The messages are put into a bounded queue and written by a separate
+ * thread, thus the thread, that adds a message, never waits for the output (unless the policy says so).
+ *
+ * @author Manfred Hantschel
+ */
+public abstract class AbstractMessageAppender implements MessageListener
+{
+
+    public enum OverflowPolicy
+    {
+        /**
+         * Discards the message, if the queue is full.
+         */
+        DISCARD,
+
+        /**
+         * Discards debug and info messages, if the queue is full. Waits a short time with warnings and errors, before
+         * discarding them.
+         */
+        DISCARD_BELOW_WARN,
+
+        /**
+         * Waits a short time, if the queue is full, before discarding the message.
+         */
+        BLOCK
+    }
+
+    private static final int BATCH_SIZE = 256;
+    private static final long OVERFLOW_TIMEOUT_MILLIS = 50;
+
+    private final Severity threshold;
+    private final BlockingQueue<Message> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread thread;
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong discardCount = new AtomicLong();
+    private final AtomicLong pendingDiscardCount = new AtomicLong();
+
+    private volatile boolean closed = false;
+    private long failureCount = 0;
+
+    public AbstractMessageAppender(String name, Severity threshold, int capacity, OverflowPolicy overflowPolicy)
+    {
+        super();
+
+        this.threshold = threshold;
+        this.overflowPolicy = overflowPolicy;
+
+        queue = new ArrayBlockingQueue<>(capacity);
+        thread = new Thread(this::drain, name);
+
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the thread, that writes the messages.
+     */
+    public void start()
+    {
+        thread.start();
+    }
+
+    @Override
+    public void messageAdded(MessageBuffer messageBuffer, Message message)
+    {
+        append(message);
+    }
+
+    @Override
+    public void messagesCleared(MessageBuffer messageBuffer)
+    {
+        // the output keeps the history
+    }
+
+    @Override
+    public void messageRemoved(MessageBuffer messageBuffer, Message message)
+    {
+        // the output keeps the history
+    }
+
+    public Severity getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Queues the message for writing, if it is covered by the threshold. Never blocks longer than a short timeout.
+     *
+     * @param message the message
+     */
+    public void append(Message message)
+    {
+        if ((closed) || (!message.getSeverity().isCoveredBy(threshold)))
+        {
+            return;
+        }
+
+        appendCount.incrementAndGet();
+
+        if (queue.offer(message))
+        {
+            return;
+        }
+
+        if ((overflowPolicy == OverflowPolicy.BLOCK)
+            || ((overflowPolicy == OverflowPolicy.DISCARD_BELOW_WARN)
+                && (message.getSeverity().isCoveredBy(Severity.WARN))))
+        {
+            try
+            {
+                if (queue.offer(message, OVERFLOW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                {
+                    return;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        discardCount.incrementAndGet();
+        pendingDiscardCount.incrementAndGet();
+    }
+
+    /**
+     * Writes the queued messages and stops the thread.
+     *
+     * @param timeoutMillis the maximum time to wait for the thread
+     */
+    public void close(long timeoutMillis)
+    {
+        closed = true;
+
+        try
+        {
+            thread.join(timeoutMillis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    protected void drain()
+    {
+        List<Message> batch = new ArrayList<>(BATCH_SIZE);
+
+        try
+        {
+            while ((!closed) || (!queue.isEmpty()))
+            {
+                Message message = queue.poll(100, TimeUnit.MILLISECONDS);
+
+                if (message == null)
+                {
+                    continue;
+                }
+
+                batch.add(message);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+
+                writeAll(batch);
+
+                batch.clear();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // stop writing
+        }
+        finally
+        {
+            try
+            {
+                closeOutput();
+            }
+            catch (IOException e)
+            {
+                fail(e);
+            }
+        }
+    }
+
+    protected void writeAll(List<Message> messages)
+    {
+        try
+        {
+            long discarded = pendingDiscardCount.getAndSet(0);
+
+            if (discarded > 0)
+            {
+                write(Message.warn("Discarded %d message(s), because the log could not keep up.", discarded));
+            }
+
+            for (Message message : messages)
+            {
+                write(message);
+            }
+
+            flush();
+        }
+        catch (IOException | RuntimeException e)
+        {
+            fail(e);
+        }
+    }
+
+    /**
+     * Called, if writing fails. Cannot use the message buffer, the message would end up here again.
+     *
+     * @param e the exception
+     */
+    protected void fail(Exception e)
+    {
+        failureCount += 1;
+
+        // report the first failures only, the disk may be full
+        if (failureCount <= 3)
+        {
+            System.err.println(String.format("Failed to write log in %s: %s", thread.getName(), e));
+        }
+    }
+
+    protected abstract void write(Message message) throws IOException;
+
+    protected abstract void flush() throws IOException;
+
+    protected void closeOutput() throws IOException
+    {
+        // intentionally left blank
+    }
+
+    public String describeStatistics()
+    {
+        return String
+            .format("[appended=%d, discarded=%d, queued=%d]", appendCount.get(), discardCount.get(), queue.size());
+    }
+
+}
@@ -15,9 +15,31 @@
 package io.github.thred.climatetray.util.message;
 
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.IllegalFormatException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.github.thred.climatetray.util.Severity;
 
@@ -64,25 +86,38 @@ public class Message implements Comparable<Message>
         return new Message(Severity.DEBUG, message, e, args);
     }
 
+    private static final Object[] NO_ARGS = {};
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
     private final Date timestamp = new Date();
 
     private final Severity severity;
     private final String message;
+    private final Object[] args;
     private final Throwable exception;
 
-    private String combinedMessage = null;
-
     public Message(Severity severity, String message, Object... args)
     {
         this(severity, message, (Exception) null, args);
     }
 
+    /**
+     * Creates a message. The message gets formatted with the arguments, when it is displayed. Arguments, that may
+     * change in the meantime, are copied or converted to strings immediately. Use a {@link MessagePayload} for large
+     * contents.
+     *
+     * @param severity the severity
+     * @param message the message, a format string
+     * @param exception the exception, may be null
+     * @param args the arguments for the format string
+     */
     public Message(Severity severity, String message, Throwable exception, Object... args)
     {
         super();
 
         this.severity = severity;
-        this.message = String.format(message, args);
+        this.message = message;
+        this.args = capture(args);
         this.exception = exception;
     }
 
@@ -98,7 +133,7 @@ public class Message implements Comparable<Message>
 
     public String getMessage()
     {
-        return message;
+        return format(message, args);
     }
 
     public Throwable getException()
@@ -106,19 +141,14 @@ public class Message implements Comparable<Message>
         return exception;
     }
 
+    /**
+     * Returns the message and the stack trace of the exception. The result is not kept, it may be large.
+     *
+     * @return the message and the stack trace
+     */
     public String getCombinedMessage()
     {
-        if (exception == null)
-        {
-            return message;
-        }
-
-        if (combinedMessage != null)
-        {
-            return combinedMessage;
-        }
-
-        return combinedMessage = combine(message, exception);
+        return combine(getMessage(), exception);
     }
 
     public void delegateToSystemStreams()
@@ -127,25 +157,36 @@ public class Message implements Comparable<Message>
         {
             case ERROR:
             case WARN:
-                System.err.println(this);
-
-                if (exception != null)
-                {
-                    exception.printStackTrace(System.err);
-                }
+                print(System.err);
                 break;
 
             default:
-                System.out.println(this);
-
-                if (exception != null)
-                {
-                    exception.printStackTrace(System.out);
-                }
+                print(System.out);
                 break;
         }
     }
 
+    /**
+     * Prints the message and the stack trace of the exception, without composing the stack trace as string.
+     *
+     * @param stream the stream
+     */
+    public void print(PrintStream stream)
+    {
+        String text = getMessage();
+
+        synchronized (stream)
+        {
+            stream.print(describePrefix());
+            stream.println(text);
+
+            if (exception != null)
+            {
+                exception.printStackTrace(stream);
+            }
+        }
+    }
+
     @Override
     public int compareTo(Message o)
     {
@@ -155,7 +196,131 @@ public class Message implements Comparable<Message>
     @Override
     public String toString()
     {
-        return String.format("%1$tH:%1$tM:%1$tS.%1$tL %2$5s: %3$s", timestamp, severity, message);
+        return describePrefix() + getMessage();
+    }
+
+    /**
+     * Returns the time of the message, formatted as HH:mm:ss.SSS.
+     *
+     * @return the time
+     */
+    public String describeTimestamp()
+    {
+        return TIME_FORMAT.format(timestamp.toInstant().atZone(ZoneId.systemDefault()));
+    }
+
+    private String describePrefix()
+    {
+        StringBuilder builder = new StringBuilder(20);
+
+        builder.append(describeTimestamp()).append(' ');
+
+        for (int i = severity.name().length(); i < 5; i += 1)
+        {
+            builder.append(' ');
+        }
+
+        return builder.append(severity.name()).append(": ").toString();
+    }
+
+    private static Object[] capture(Object[] args)
+    {
+        if ((args == null) || (args.length == 0))
+        {
+            return NO_ARGS;
+        }
+
+        Object[] result = args;
+
+        for (int i = 0; i < args.length; i += 1)
+        {
+            Object arg = args[i];
+
+            if ((arg != null) && (!isImmutable(arg)))
+            {
+                if (result == args)
+                {
+                    result = args.clone();
+                }
+
+                result[i] = snapshot(arg);
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isImmutable(Object arg)
+    {
+        return (arg instanceof String)
+            || (arg instanceof Integer)
+            || (arg instanceof Long)
+            || (arg instanceof Short)
+            || (arg instanceof Byte)
+            || (arg instanceof Double)
+            || (arg instanceof Float)
+            || (arg instanceof BigInteger)
+            || (arg instanceof BigDecimal)
+            || (arg instanceof Boolean)
+            || (arg instanceof Character)
+            || (arg instanceof Enum)
+            || (arg instanceof UUID)
+            || (arg instanceof Instant)
+            || (arg instanceof LocalDate)
+            || (arg instanceof LocalTime)
+            || (arg instanceof LocalDateTime)
+            || (arg instanceof OffsetDateTime)
+            || (arg instanceof ZonedDateTime)
+            || (arg instanceof Duration)
+            || (arg instanceof MessagePayload);
+    }
+
+    /**
+     * Copies the current value of a mutable argument, keeping the type, if the format may depend on it.
+     *
+     * @param arg the argument
+     * @return the copy
+     */
+    private static Object snapshot(Object arg)
+    {
+        if (arg instanceof AtomicInteger)
+        {
+            return ((AtomicInteger) arg).get();
+        }
+
+        if ((arg instanceof AtomicLong) || (arg instanceof LongAdder) || (arg instanceof LongAccumulator))
+        {
+            return ((Number) arg).longValue();
+        }
+
+        if ((arg instanceof DoubleAdder) || (arg instanceof DoubleAccumulator))
+        {
+            return ((Number) arg).doubleValue();
+        }
+
+        if (arg instanceof Date)
+        {
+            return new Date(((Date) arg).getTime());
+        }
+
+        if (arg instanceof Calendar)
+        {
+            return ((Calendar) arg).clone();
+        }
+
+        return String.valueOf(arg);
+    }
+
+    private static String format(String message, Object... args)
+    {
+        try
+        {
+            return String.format(message, args);
+        }
+        catch (IllegalFormatException e)
+        {
+            return message + " " + Arrays.toString(args);
+        }
     }
 
     private static String combine(String message, Throwable exception)
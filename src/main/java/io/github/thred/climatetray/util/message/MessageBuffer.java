@@ -18,23 +18,56 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import javax.swing.event.EventListenerList;
 
 import io.github.thred.climatetray.util.Severity;
 
+/**
+ * A buffer for messages with a fixed capacity. Messages are appended to a ring without locking, the oldest message gets
+ * overwritten when the buffer is full. Iterating the buffer works on a snapshot. The number of messages per severity
+ * is counted, thus {@link #containsAtLeast(Severity)} does not need to look at the messages.
+ *
+ * @author Manfred Hantschel
+ */
 public class MessageBuffer implements Iterable<Message>
 {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private static class Entry
+    {
+        private final long sequence;
+        private final Message message;
+
+        Entry(long sequence, Message message)
+        {
+            super();
+
+            this.sequence = sequence;
+            this.message = message;
+        }
+    }
+
     protected final EventListenerList listenerList = new EventListenerList();
-    protected final List<Message> messages = new ArrayList<>();
     protected final boolean delegate;
     protected final int maximumSize;
 
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile long clearedSequence = 0;
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(Severity.values().length);
+
     protected Severity threshold = Severity.DEBUG;
 
+    private volatile boolean sortedBySeverity = false;
+
     public MessageBuffer()
     {
-        this(false, Integer.MAX_VALUE);
+        this(false, DEFAULT_MAXIMUM_SIZE);
     }
 
     public MessageBuffer(boolean delegate, int maximumSize)
@@ -42,7 +75,9 @@ public class MessageBuffer implements Iterable<Message>
         super();
 
         this.delegate = delegate;
-        this.maximumSize = maximumSize;
+        this.maximumSize = Math.max(maximumSize, 1);
+
+        entries = new AtomicReferenceArray<>(this.maximumSize);
     }
 
     public void addMessageListener(MessageListener listener)
@@ -204,40 +239,87 @@ public class MessageBuffer implements Iterable<Message>
         return severity.isCoveredBy(threshold);
     }
 
+    /**
+     * Appends the message. If the buffer is full, the oldest message gets removed.
+     *
+     * @param message the message
+     * @return the message
+     */
     public Message add(Message message)
     {
-        if (isEnabled(message.getSeverity()))
+        if (!isEnabled(message.getSeverity()))
         {
-            if (delegate)
+            return message;
+        }
+
+        if (delegate)
+        {
+            message.delegateToSystemStreams();
+        }
+
+        long sequence = nextSequence.getAndIncrement();
+        int index = (int) (sequence % maximumSize);
+        Entry entry = new Entry(sequence, message);
+
+        // count first, the entry may get removed by another thread as soon as it is stored
+        counts.incrementAndGet(message.getSeverity().ordinal());
+
+        while (true)
+        {
+            Entry removed = entries.get(index);
+
+            if ((removed != null) && (removed.sequence > sequence))
             {
-                message.delegateToSystemStreams();
-            }
+                // overtaken by a writer, that wrapped around the buffer, the message is gone already
+                counts.decrementAndGet(message.getSeverity().ordinal());
 
-            messages.add(message);
+                fireMessageAdded(message);
+                fireMessageRemoved(message);
 
-            fireMessageAdded(message);
+                return message;
+            }
 
-            while (messages.size() >= maximumSize)
+            if (entries.compareAndSet(index, removed, entry))
             {
-                fireMessageRemoved(messages.remove(0));
+                fireMessageAdded(message);
+
+                if (removed != null)
+                {
+                    counts.decrementAndGet(removed.message.getSeverity().ordinal());
+
+                    fireMessageRemoved(removed.message);
+                }
+
+                return message;
             }
         }
-
-        return message;
     }
 
-    public void clear()
+    public synchronized void clear()
     {
-        messages.clear();
+        long sequence = nextSequence.get();
+
+        clearedSequence = sequence;
+
+        for (int i = 0; i < maximumSize; i += 1)
+        {
+            Entry removed = entries.get(i);
+
+            // keep messages, that have been added after the clear started
+            if ((removed != null) && (removed.sequence < sequence) && (entries.compareAndSet(i, removed, null)))
+            {
+                counts.decrementAndGet(removed.message.getSeverity().ordinal());
+            }
+        }
 
         fireMessagesCleared();
     }
 
     public boolean containsAtLeast(Severity severity)
     {
-        for (Message message : this)
+        for (int i = 0; i <= severity.ordinal(); i += 1)
         {
-            if (message.getSeverity().isCoveredBy(severity))
+            if (counts.get(i) > 0)
             {
                 return true;
             }
@@ -246,40 +328,119 @@ public class MessageBuffer implements Iterable<Message>
         return false;
     }
 
+    /**
+     * Returns the number of messages with the specified severity.
+     *
+     * @param severity the severity
+     * @return the number of messages
+     */
+    public int count(Severity severity)
+    {
+        return Math.max(counts.get(severity.ordinal()), 0);
+    }
+
     public Message first()
     {
-        return (messages.isEmpty()) ? null : messages.get(0);
+        List<Message> snapshot = snapshot();
+
+        return (snapshot.isEmpty()) ? null : snapshot.get(0);
     }
 
     public Message worst()
     {
-        return messages.stream().sorted().findFirst().orElse(null);
+        for (Severity severity : Severity.values())
+        {
+            if (count(severity) > 0)
+            {
+                Message message = first(severity);
+
+                if (message != null)
+                {
+                    return message;
+                }
+            }
+        }
+
+        return null;
     }
 
     public Message first(Severity severity)
     {
-        return messages.stream().filter(message -> message.getSeverity() == severity).findFirst().orElse(null);
+        if (count(severity) <= 0)
+        {
+            return null;
+        }
+
+        return snapshot().stream().filter(message -> message.getSeverity() == severity).findFirst().orElse(null);
     }
 
     public boolean isEmpty()
     {
-        return messages.isEmpty();
+        return size() == 0;
     }
 
     @Override
     public Iterator<Message> iterator()
     {
-        return Collections.unmodifiableCollection(messages).iterator();
+        return Collections.unmodifiableList(snapshot()).iterator();
+    }
+
+    /**
+     * Returns a copy of the messages, the oldest one first (or the worst one first, if the buffer is sorted by
+     * severity). The snapshot ends before the first message, that is still being added by another thread, thus a later
+     * snapshot contains all messages, that follow the last message of this one.
+     *
+     * @return the messages
+     */
+    public List<Message> snapshot()
+    {
+        long endSequence = nextSequence.get();
+        long startSequence = Math.max(Math.max(endSequence - maximumSize, 0), clearedSequence);
+        List<Message> snapshot = new ArrayList<>((int) Math.max(endSequence - startSequence, 0));
+
+        for (long sequence = startSequence; sequence < endSequence; sequence += 1)
+        {
+            Entry entry = entries.get((int) (sequence % maximumSize));
+
+            if ((entry == null) || (entry.sequence < sequence))
+            {
+                // the sequence has been claimed, but the message has not been stored, yet
+                break;
+            }
+
+            if (entry.sequence == sequence)
+            {
+                snapshot.add(entry.message);
+            }
+        }
+
+        if (sortedBySeverity)
+        {
+            Collections.sort(snapshot);
+        }
+
+        return snapshot;
     }
 
     public int size()
     {
-        return messages.size();
+        int size = 0;
+
+        for (int i = 0; i < counts.length(); i += 1)
+        {
+            size += counts.get(i);
+        }
+
+        return Math.max(size, 0);
     }
 
+    /**
+     * From now on, the messages will be iterated by severity, the worst first. Messages with the same severity stay in
+     * the order they have been added.
+     */
     public void sortBySeverity()
     {
-        Collections.sort(messages);
+        sortedBySeverity = true;
     }
 
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util.message;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Formattable;
+import java.util.Formatter;
+
+/**
+ * A (large) content, that should be part of a message, like the body of a request. Use it as argument of a message.
+ * The content gets decoded, when the message is displayed, directly into the output of the formatter. If the content
+ * exceeds the maximum length, only the start is kept.
+ *
+ * @author Manfred Hantschel
+ */
+public final class MessagePayload implements Formattable
+{
+
+    public static final int MAXIMUM_LENGTH = Integer.getInteger("logPayloadLength", 8 * 1024);
+
+    /**
+     * Creates a payload. The content is referenced, not copied, unless it exceeds the maximum length. The caller must
+     * not modify it afterwards.
+     *
+     * @param content the content
+     * @param charset the charset of the content
+     * @return the payload
+     */
+    public static MessagePayload of(byte[] content, Charset charset)
+    {
+        if (content.length <= MAXIMUM_LENGTH)
+        {
+            return new MessagePayload(content, content.length, charset);
+        }
+
+        return new MessagePayload(Arrays.copyOf(content, MAXIMUM_LENGTH), content.length, charset);
+    }
+
+    private final byte[] content;
+    private final int length;
+    private final Charset charset;
+
+    private MessagePayload(byte[] content, int length, Charset charset)
+    {
+        super();
+
+        this.content = content;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the length of the original content.
+     *
+     * @return the length in bytes
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    public boolean isTruncated()
+    {
+        return content.length < length;
+    }
+
+    @Override
+    public void formatTo(Formatter formatter, int flags, int width, int precision)
+    {
+        Appendable out = formatter.out();
+        CharsetDecoder decoder = charset
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer in = ByteBuffer.wrap(content);
+        CharBuffer buffer = CharBuffer.allocate(Math.min(content.length, 1024) + 1);
+
+        try
+        {
+            while (true)
+            {
+                boolean underflow = decoder.decode(in, buffer, true).isUnderflow();
+
+                buffer.flip();
+                out.append(buffer);
+                buffer.clear();
+
+                if (underflow)
+                {
+                    break;
+                }
+            }
+
+            decoder.flush(buffer);
+            buffer.flip();
+            out.append(buffer);
+
+            if (isTruncated())
+            {
+                out.append(String.format("\n[... %d more bytes]", length - content.length));
+            }
+        }
+        catch (IOException e)
+        {
+            // strings and print streams do not throw exceptions
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        String result = new String(content, charset);
+
+        if (isTruncated())
+        {
+            result += String.format("\n[... %d more bytes]", length - content.length);
+        }
+
+        return result;
+    }
+
+}
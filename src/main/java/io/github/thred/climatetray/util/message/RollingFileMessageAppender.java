@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util.message;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import io.github.thred.climatetray.util.Severity;
+
+/**
+ * Writes the messages to a file. If the file exceeds the maximum size, it gets rotated: "name.log" is renamed to
+ * "name.1.log", "name.1.log" to "name.2.log" and so on. The oldest file gets deleted.
+ *
+ * @author Manfred Hantschel
+ */
+public class RollingFileMessageAppender extends AbstractMessageAppender
+{
+
+    private static class CountingOutputStream extends FilterOutputStream
+    {
+        private long count;
+
+        CountingOutputStream(OutputStream out, long count)
+        {
+            super(out);
+
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            out.write(b);
+            count += 1;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private final File directory;
+    private final String name;
+    private final long maximumFileSize;
+    private final int maximumFileCount;
+
+    private CountingOutputStream counter = null;
+    private PrintStream stream = null;
+
+    /**
+     * Creates the appender.
+     *
+     * @param directory the directory for the files, will be created if necessary
+     * @param name the name of the files, without extension
+     * @param maximumFileSize the size in bytes, that causes a rotation
+     * @param maximumFileCount the number of files to keep, including the current one
+     * @param threshold the least severe messages, that will be written
+     * @param capacity the number of messages, that may be queued
+     * @param overflowPolicy the policy, if the queue is full
+     */
+    public RollingFileMessageAppender(File directory, String name, long maximumFileSize, int maximumFileCount,
+        Severity threshold, int capacity, OverflowPolicy overflowPolicy)
+    {
+        super("Climate Tray File Log Thread", threshold, capacity, overflowPolicy);
+
+        this.directory = directory;
+        this.name = name;
+        this.maximumFileSize = maximumFileSize;
+        this.maximumFileCount = Math.max(maximumFileCount, 1);
+    }
+
+    public File getFile()
+    {
+        return getFile(0);
+    }
+
+    protected File getFile(int index)
+    {
+        return new File(directory, (index == 0) ? name + ".log" : name + "." + index + ".log");
+    }
+
+    @Override
+    protected void write(Message message) throws IOException
+    {
+        if (stream == null)
+        {
+            open();
+        }
+
+        message.print(stream);
+
+        if (counter.count >= maximumFileSize)
+        {
+            closeOutput();
+            rotate();
+        }
+    }
+
+    @Override
+    protected void flush() throws IOException
+    {
+        if (stream == null)
+        {
+            return;
+        }
+
+        stream.flush();
+
+        // a print stream never throws an exception, it just remembers it
+        if (stream.checkError())
+        {
+            closeOutput();
+
+            throw new IOException("Failed to write " + getFile());
+        }
+    }
+
+    @Override
+    protected void closeOutput() throws IOException
+    {
+        if (stream == null)
+        {
+            return;
+        }
+
+        stream.close();
+
+        stream = null;
+        counter = null;
+    }
+
+    protected void open() throws IOException
+    {
+        if ((!directory.isDirectory()) && (!directory.mkdirs()))
+        {
+            throw new IOException("Failed to create directory " + directory);
+        }
+
+        File file = getFile();
+
+        counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file, true), 8192),
+            file.length());
+        stream = new PrintStream(counter, false, "UTF-8");
+    }
+
+    protected void rotate() throws IOException
+    {
+        File oldestFile = getFile(maximumFileCount - 1);
+
+        if ((oldestFile.exists()) && (!oldestFile.delete()))
+        {
+            throw new IOException("Failed to delete " + oldestFile);
+        }
+
+        for (int i = maximumFileCount - 2; i >= 0; i -= 1)
+        {
+            File file = getFile(i);
+
+            if ((file.exists()) && (!file.renameTo(getFile(i + 1))))
+            {
+                throw new IOException("Failed to rename " + file);
+            }
+        }
+    }
+
+}
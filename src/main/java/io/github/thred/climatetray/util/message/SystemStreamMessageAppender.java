@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015 - 2018 Manfred Hantschel
+ *
+ * This file is part of Climate-Tray.
+ *
+ * Climate-Tray is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Climate-Tray is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Climate-Tray. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+package io.github.thred.climatetray.util.message;
+
+import io.github.thred.climatetray.util.Severity;
+
+/**
+ * Writes the messages to {@link System#out} and {@link System#err}.
+ *
+ * @author Manfred Hantschel
+ */
+public class SystemStreamMessageAppender extends AbstractMessageAppender
+{
+
+    public SystemStreamMessageAppender(int capacity, OverflowPolicy overflowPolicy)
+    {
+        super("Climate Tray Console Log Thread", Severity.DEBUG, capacity, overflowPolicy);
+    }
+
+    @Override
+    protected void write(Message message)
+    {
+        message.delegateToSystemStreams();
+    }
+
+    @Override
+    protected void flush()
+    {
+        System.out.flush();
+        System.err.flush();
+    }
+
+}